@@ -0,0 +1,330 @@
+package maze.agents;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+
+/**
+ * This class represents a crowd of agents walking a maze at once, each following its own
+ * policy: a random walk, a greedy step toward the goal, or the moves of a shared {@link FlowField}.
+ *
+ * Agents are not objects: each is an index into arrays holding its spot (row * columns +
+ * column), its policy, its random state and the tick it arrived. Each tick moves every agent
+ * at most one spot, in parallel chunks of agents. No two agents ever share a spot: a spot
+ * must be claimed in an atomic occupancy grid, one bit per spot, before an agent may move
+ * into it, so an agent whose chosen spot is taken simply waits. Agents that reach the goal
+ * leave the maze, freeing their spot. Unlike the random walk search, agents never mark the maze.
+ *
+ * Since agents in different chunks race for the same spots, ticks run in parallel are not
+ * repeatable from one run to the next, though which spots the agents start on is.
+ *
+ * @author Wei Wu
+ */
+public class Crowd {
+    public static final int NOT_ARRIVED = -1;
+    // agents moved by each task during a tick
+    private static final int CHUNK_SIZE = 1 << 12;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final Policy[] POLICIES = Policy.values();
+
+    private final Maze myMaze;
+    private final FlowField myField;
+    private final int myNumColumns;
+    private final int myGoal;
+    // each agent's spot, policy, random state, and tick it reached the goal
+    private final int[] mySpots;
+    private final byte[] myPolicies;
+    private final long[] myRandoms;
+    private final int[] myArrivals;
+    // one bit per spot, set while an agent stands on it
+    private final AtomicLongArray myOccupied;
+    // change in index for a move in each direction
+    private final int[] myOffsets;
+    private int myTick;
+    private int myNumArrived;
+    private long myNumMoves;
+    private long myNumBlocked;
+
+
+    /**
+     * How an agent chooses its next spot.
+     */
+    public enum Policy {
+        // any open neighbor, chosen at random
+        RANDOM,
+        // the open neighbor nearest the goal, as the crow flies
+        GREEDY,
+        // the move given by the flow field
+        FLOW
+    }
+
+
+    /**
+     * Create the given number of agents, all following the given policy, on distinct open spots
+     * of the given maze chosen at random from the given seed; the field is needed only by agents
+     * following it, and leads them to its sources rather than the maze's goal.
+     */
+    public Crowd (Maze maze, FlowField field, int numAgents, Policy policy, long seed) {
+        this(maze, field, numAgents, new Policy[] { policy }, seed);
+    }
+
+    /**
+     * Create the given number of agents on distinct open spots of the given maze chosen at random
+     * from the given seed, each following the next of the given policies in turn.
+     */
+    public Crowd (Maze maze, FlowField field, int numAgents, Policy[] policies, long seed) {
+        // simple error checking, we will see better ways in the future
+        assert(numAgents > 0 && policies.length > 0);
+        assert(field != null || IntStream.range(0, policies.length).noneMatch(k -> policies[k] == Policy.FLOW));
+        myMaze = maze;
+        myField = field;
+        myNumColumns = maze.getNumColumns();
+        myGoal = indexOf(maze.getGoal().getX(), maze.getGoal().getY());
+        mySpots = new int[numAgents];
+        myPolicies = new byte[numAgents];
+        myRandoms = new long[numAgents];
+        myArrivals = new int[numAgents];
+        myOccupied = new AtomicLongArray((int)(((long)Maze.getIntSize(maze.getNumRows(), myNumColumns, "Crowd") + Long.SIZE - 1) / Long.SIZE));
+        myOffsets = new int[DIRECTIONS.length];
+        for (Direction d : DIRECTIONS) {
+            myOffsets[d.ordinal()] = d.getDX() * myNumColumns + d.getDY();
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        assert(numAgents <= IntStream.range(0, myOccupied.length() * Long.SIZE).filter(this::isStart).count());
+        for (int agent = 0; agent < numAgents; agent += 1) {
+            int spot = randomOpenSpot(random);
+            while (! claim(spot)) {
+                spot = randomOpenSpot(random);
+            }
+            mySpots[agent] = spot;
+            myPolicies[agent] = (byte)policies[agent % policies.length].ordinal();
+            myRandoms[agent] = random.nextLong();
+            myArrivals[agent] = NOT_ARRIVED;
+        }
+    }
+
+    /**
+     * Move every agent still in the maze at most one spot, in parallel.
+     */
+    public void tick () {
+        int numChunks = (mySpots.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long[] totals = IntStream.range(0, numChunks).parallel()
+                .mapToObj(c -> tick(c * CHUNK_SIZE, Math.min(mySpots.length, (c + 1) * CHUNK_SIZE)))
+                .reduce(new long[3], (a, b) -> new long[] { a[0] + b[0], a[1] + b[1], a[2] + b[2] });
+        myNumMoves += totals[0];
+        myNumBlocked += totals[1];
+        myNumArrived += (int)totals[2];
+        myTick += 1;
+    }
+
+    /**
+     * Run the given number of ticks, or fewer if every agent arrives first, and return the
+     * number of ticks run per second.
+     */
+    public double run (int ticks) {
+        long start = System.nanoTime();
+        int count = 0;
+        while (count < ticks && myNumArrived < mySpots.length) {
+            tick();
+            count += 1;
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Returns number of agents.
+     */
+    public int getNumAgents () {
+        return mySpots.length;
+    }
+
+    /**
+     * Returns number of ticks run so far.
+     */
+    public int getTick () {
+        return myTick;
+    }
+
+    /**
+     * Returns number of agents that have reached the goal and left the maze.
+     */
+    public int getNumArrived () {
+        return myNumArrived;
+    }
+
+    /**
+     * Returns total number of moves made by all agents.
+     */
+    public long getNumMoves () {
+        return myNumMoves;
+    }
+
+    /**
+     * Returns total number of times an agent waited because the spot it chose was taken.
+     */
+    public long getNumBlocked () {
+        return myNumBlocked;
+    }
+
+    /**
+     * Returns given agent's current spot, or where it left the maze.
+     */
+    public Spot getSpot (int agent) {
+        return myMaze.getSpot(mySpots[agent] / myNumColumns, mySpots[agent] % myNumColumns);
+    }
+
+    /**
+     * Returns tick in which given agent reached the goal, or NOT_ARRIVED.
+     */
+    public int getArrival (int agent) {
+        return myArrivals[agent];
+    }
+
+    /**
+     * Returns true only if an agent stands on the given point.
+     */
+    public boolean isOccupied (int x, int y) {
+        int spot = indexOf(x, y);
+        return (myOccupied.get(spot / Long.SIZE) & (1L << (spot % Long.SIZE))) != 0;
+    }
+
+    /**
+     * Returns number of bytes held for the agents and the occupancy grid.
+     */
+    public long getNumBytes () {
+        return (long)mySpots.length * (2 * Integer.BYTES + Long.BYTES + 1) + (long)myOccupied.length() * Long.BYTES;
+    }
+
+    // Move the given range of agents; returns moves made, moves blocked, and agents arrived
+    private long[] tick (int from, int to) {
+        long moves = 0;
+        long blocked = 0;
+        long arrived = 0;
+        for (int agent = from; agent < to; agent += 1) {
+            if (myArrivals[agent] != NOT_ARRIVED) {
+                continue;
+            }
+            int spot = mySpots[agent];
+            int next = choose(agent, spot);
+            if (next == spot) {
+                continue;
+            }
+            if (! claim(next)) {
+                blocked += 1;
+                continue;
+            }
+            release(spot);
+            mySpots[agent] = next;
+            moves += 1;
+            if (isArrival(agent, next)) {
+                release(next);
+                myArrivals[agent] = myTick + 1;
+                arrived += 1;
+            }
+        }
+        return new long[] { moves, blocked, arrived };
+    }
+
+    private int choose (int agent, int spot) {
+        return switch (POLICIES[myPolicies[agent]]) {
+            case FLOW -> myField.next(spot);
+            case GREEDY -> nearestToGoal(agent, spot);
+            case RANDOM -> randomNeighbor(agent, spot);
+        };
+    }
+
+    private int randomNeighbor (int agent, int spot) {
+        int first = (int)(nextRandom(agent) >>> (Long.SIZE - 2));
+        for (int k = 0; k < myOffsets.length; k += 1) {
+            int next = spot + myOffsets[(first + k) & 3];
+            if (isOpen(next)) {
+                return next;
+            }
+        }
+        return spot;
+    }
+
+    // Open neighbor nearest the goal, ties broken at random, even if it is farther than this spot
+    // (so an agent can back out of a dead end); staying put only if no neighbor is open
+    private int nearestToGoal (int agent, int spot) {
+        int first = (int)(nextRandom(agent) >>> (Long.SIZE - 2));
+        int best = spot;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int k = 0; k < myOffsets.length; k += 1) {
+            int next = spot + myOffsets[(first + k) & 3];
+            if (isOpen(next) && distanceToGoal(next) < bestDistance) {
+                best = next;
+                bestDistance = distanceToGoal(next);
+            }
+        }
+        return best;
+    }
+
+    private boolean isArrival (int agent, int spot) {
+        return (myPolicies[agent] == Policy.FLOW.ordinal()) ? myField.next(spot) == spot : spot == myGoal;
+    }
+
+    // Set the given spot's bit unless it is already set; returns true only if this call set it
+    private boolean claim (int spot) {
+        int word = spot / Long.SIZE;
+        long bit = 1L << (spot % Long.SIZE);
+        while (true) {
+            long bits = myOccupied.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            if (myOccupied.compareAndSet(word, bits, bits | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private void release (int spot) {
+        long bit = 1L << (spot % Long.SIZE);
+        myOccupied.getAndAccumulate(spot / Long.SIZE, ~bit, (bits, mask) -> bits & mask);
+    }
+
+    // Next value of the given agent's SplitMix64 stream
+    private long nextRandom (int agent) {
+        long z = (myRandoms[agent] += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Open spot an agent can start from, one that is not already where agents are headed
+    private int randomOpenSpot (SplittableRandom random) {
+        while (true) {
+            int spot = random.nextInt(myMaze.getNumRows() * myNumColumns);
+            if (isStart(spot)) {
+                return spot;
+            }
+        }
+    }
+
+    private boolean isStart (int spot) {
+        return spot < myMaze.getNumRows() * myNumColumns && isOpen(spot) && spot != myGoal
+                && (myField == null || myField.getDistance(spot / myNumColumns, spot % myNumColumns) != 0);
+    }
+
+    private int distanceToGoal (int spot) {
+        return Math.abs(spot / myNumColumns - myGoal / myNumColumns) + Math.abs(spot % myNumColumns - myGoal % myNumColumns);
+    }
+
+    private boolean isOpen (int spot) {
+        int x = spot / myNumColumns;
+        int y = spot % myNumColumns;
+        return myMaze.isInBounds(x, y) && myMaze.getState(x, y) != Spot.WALL;
+    }
+
+    private int indexOf (int x, int y) {
+        return x * myNumColumns + y;
+    }
+}
@@ -0,0 +1,382 @@
+package maze.agents;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.MazeListener;
+import maze.model.Spot;
+import maze.util.RadixHeap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+
+/**
+ * This class represents a distance field over a maze: the number of moves from every spot
+ * to the nearest of a set of source spots (by default, the goal), along with a flow field
+ * giving, in two bits per spot, the direction of a move that brings it one step closer.
+ *
+ * Any number of agents heading for the same sources can then each find their next move
+ * with a single lookup, rather than each searching the maze. The field is computed by a
+ * breadth-first search whose layers are expanded in parallel once they are large enough,
+ * with each spot claimed by exactly one worker through an atomic array of distances; the
+ * flow field is then filled in parallel, thirty-two spots to a word. Terrain costs are ignored.
+ *
+ * The field listens to its maze: when walls change, the next update() repairs only the
+ * distances that change. A wall that appears invalidates just the spots whose every
+ * shortest path led through it, which are then refilled from their neighbors, and a wall
+ * that disappears only spreads shorter distances outward from it. Lookups may be made from
+ * many threads at once, but not while an update is running. A field should be closed once
+ * it is no longer needed, so the maze stops telling it about changes.
+ *
+ * @author Wei Wu
+ */
+public class FlowField implements MazeListener, AutoCloseable {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+    // layers smaller than this are expanded by one thread, as splitting them costs more than it saves
+    private static final int PARALLEL_LAYER = 1 << 12;
+    private static final int BITS_PER_MOVE = 2;
+    private static final int MOVES_PER_WORD = Long.SIZE / BITS_PER_MOVE;
+
+    private final Maze myMaze;
+    private final int myNumRows;
+    private final int myNumColumns;
+    // spots every distance is measured to, indexed by row * columns + column
+    private final int[] mySources;
+    private final BitSet myIsSource;
+    // moves from each spot to the nearest source, or UNREACHED
+    private final AtomicIntegerArray myDistances;
+    // direction of a move one step closer from each spot, meaningful only where the distance is above zero
+    private final long[] myMoves;
+    // change in index for a move in each direction
+    private final int[] myOffsets;
+    // spots that turned into or out of walls since the field was last updated
+    private final BitSet myChanged;
+    private long myNumUpdated;
+
+
+    /**
+     * Create the distance field to the given maze's goal.
+     */
+    public FlowField (Maze maze) {
+        this(maze, List.of(maze.getGoal()));
+    }
+
+    /**
+     * Create the distance field to the nearest of the given spots of the given maze.
+     */
+    public FlowField (Maze maze, Collection<Spot> sources) {
+        // simple error checking, we will see better ways in the future
+        assert(! sources.isEmpty());
+        myMaze = maze;
+        myNumRows = maze.getNumRows();
+        myNumColumns = maze.getNumColumns();
+        int size = Maze.getIntSize(myNumRows, myNumColumns, "Flow field");
+        mySources = sources.stream().mapToInt(spot -> indexOf(spot.getX(), spot.getY())).distinct().toArray();
+        myIsSource = new BitSet(size);
+        for (int source : mySources) {
+            myIsSource.set(source);
+        }
+        myDistances = new AtomicIntegerArray(size);
+        myMoves = new long[(size + MOVES_PER_WORD - 1) / MOVES_PER_WORD];
+        myOffsets = new int[Direction.values().length];
+        for (Direction d : Direction.values()) {
+            myOffsets[d.ordinal()] = d.getDX() * myNumColumns + d.getDY();
+        }
+        myChanged = new BitSet(size);
+        recompute();
+        maze.addListener(this);
+    }
+
+    /**
+     * Recompute the whole field from scratch, in parallel.
+     */
+    public void recompute () {
+        IntStream.range(0, myDistances.length()).parallel().forEach(k -> myDistances.set(k, UNREACHED));
+        int[] layer = IntStream.of(mySources).filter(this::isOpen).toArray();
+        for (int source : layer) {
+            myDistances.set(source, 0);
+        }
+        for (int distance = 1; layer.length > 0; distance += 1) {
+            layer = expand(layer, distance);
+        }
+        IntStream.range(0, myMoves.length).parallel().forEach(this::fillMoves);
+        synchronized (myChanged) {
+            myChanged.clear();
+        }
+    }
+
+    /**
+     * Repair the field after walls have changed, touching only the spots whose distances change
+     * and their neighbors; returns the number of spots whose distances changed.
+     */
+    public int update () {
+        BitSet changed;
+        synchronized (myChanged) {
+            if (myChanged.isEmpty()) {
+                return 0;
+            }
+            changed = (BitSet)myChanged.clone();
+            myChanged.clear();
+        }
+        BitSet touched = new BitSet();
+        List<Integer> invalidated = new ArrayList<>();
+        for (int spot = changed.nextSetBit(0); spot >= 0; spot = changed.nextSetBit(spot + 1)) {
+            if (! isOpen(spot)) {
+                invalidate(spot, touched, invalidated);
+            }
+        }
+
+        // refill what was invalidated, and what was opened up, from their neighbors
+        RadixHeap frontier = new RadixHeap();
+        invalidated.forEach(spot -> seed(spot, frontier, touched));
+        for (int spot = changed.nextSetBit(0); spot >= 0; spot = changed.nextSetBit(spot + 1)) {
+            if (isOpen(spot)) {
+                seed(spot, frontier, touched);
+            }
+        }
+        while (! frontier.isEmpty()) {
+            int distance = frontier.peekKey();
+            int spot = (int)frontier.pop();
+            if (distance > myDistances.get(spot)) {
+                continue;
+            }
+            for (int offset : myOffsets) {
+                int next = spot + offset;
+                if (isOpen(next) && distance + 1 < myDistances.get(next)) {
+                    myDistances.set(next, distance + 1);
+                    touched.set(next);
+                    frontier.push(distance + 1, next);
+                }
+            }
+        }
+
+        // a spot's move depends on its neighbors' distances as well as its own
+        BitSet moved = (BitSet)touched.clone();
+        touched.stream().forEach(spot -> {
+            for (int offset : myOffsets) {
+                if (0 <= spot + offset && spot + offset < myDistances.length()) {
+                    moved.set(spot + offset);
+                }
+            }
+        });
+        moved.stream().forEach(this::setMove);
+        myNumUpdated += touched.cardinality();
+        return touched.cardinality();
+    }
+
+    /**
+     * Returns number of moves from given point to the nearest source, or UNREACHED.
+     */
+    public int getDistance (int x, int y) {
+        return myDistances.get(indexOf(x, y));
+    }
+
+    /**
+     * Returns direction of a move one step closer to the nearest source from given point,
+     * or null at a source or where no source can be reached.
+     */
+    public Direction getMove (int x, int y) {
+        int spot = indexOf(x, y);
+        int distance = myDistances.get(spot);
+        return (distance == 0 || distance == UNREACHED) ? null : Direction.fromCode(moveOf(spot));
+    }
+
+    /**
+     * Returns index (row * columns + column) of the spot one step closer to the nearest source
+     * from the spot with given index, or the same index at a source or where none can be reached.
+     */
+    public int next (int spot) {
+        int distance = myDistances.get(spot);
+        return (distance == 0 || distance == UNREACHED) ? spot : spot + myOffsets[moveOf(spot)];
+    }
+
+    /**
+     * Returns index of given point, as used by next().
+     */
+    public int indexOf (int x, int y) {
+        return x * myNumColumns + y;
+    }
+
+    /**
+     * Returns maze this is the field of.
+     */
+    public Maze getMaze () {
+        return myMaze;
+    }
+
+    /**
+     * Returns number of distances changed by updates since the field was made.
+     */
+    public long getNumUpdated () {
+        return myNumUpdated;
+    }
+
+    /**
+     * Returns number of bytes held by the distances and moves.
+     */
+    public long getNumBytes () {
+        return (long)myDistances.length() * Integer.BYTES + (long)myMoves.length * Long.BYTES;
+    }
+
+    /**
+     * Only walls appearing or disappearing change the field, the next time it is updated.
+     */
+    @Override
+    public void stateChanged (int x, int y, int oldState, int newState) {
+        if ((oldState == Spot.WALL) != (newState == Spot.WALL)) {
+            synchronized (myChanged) {
+                myChanged.set(indexOf(x, y));
+            }
+        }
+    }
+
+    /**
+     * Stop listening to the maze; the field will no longer notice walls changing.
+     */
+    @Override
+    public void close () {
+        myMaze.removeListener(this);
+    }
+
+    // Claim the unreached open neighbors of every spot in a layer at the given distance, in parallel
+    // if the layer is large enough, and return them as the next layer
+    private int[] expand (int[] layer, int distance) {
+        if (layer.length < PARALLEL_LAYER) {
+            return expand(layer, 0, layer.length, distance);
+        }
+        int numChunks = (layer.length + PARALLEL_LAYER - 1) / PARALLEL_LAYER;
+        return IntStream.range(0, numChunks).parallel()
+                .mapToObj(c -> expand(layer, c * PARALLEL_LAYER, Math.min(layer.length, (c + 1) * PARALLEL_LAYER), distance))
+                .flatMapToInt(IntStream::of)
+                .toArray();
+    }
+
+    private int[] expand (int[] layer, int from, int to, int distance) {
+        int[] next = new int[(to - from) * (myOffsets.length - 1) + 1];
+        int count = 0;
+        for (int k = from; k < to; k += 1) {
+            for (int offset : myOffsets) {
+                int spot = layer[k] + offset;
+                // exactly one worker wins each spot
+                if (isOpen(spot) && myDistances.get(spot) == UNREACHED && myDistances.compareAndSet(spot, UNREACHED, distance)) {
+                    if (count == next.length) {
+                        next = Arrays.copyOf(next, next.length * 2);
+                    }
+                    next[count++] = spot;
+                }
+            }
+        }
+        return Arrays.copyOf(next, count);
+    }
+
+    // Forget the distance of a spot that became a wall and of every spot whose shortest paths all led
+    // through it, checking spots in order of their old distance so each sees its closer neighbors settled
+    private void invalidate (int wall, BitSet touched, List<Integer> invalidated) {
+        int old = myDistances.get(wall);
+        if (old == UNREACHED) {
+            return;
+        }
+        myDistances.set(wall, UNREACHED);
+        touched.set(wall);
+        Queue<Integer> candidates = new ArrayDeque<>();
+        addFarther(wall, old, candidates);
+        while (! candidates.isEmpty()) {
+            int spot = candidates.remove();
+            int distance = myDistances.get(spot);
+            if (distance == UNREACHED || distance == 0 || hasCloser(spot, distance)) {
+                continue;
+            }
+            myDistances.set(spot, UNREACHED);
+            touched.set(spot);
+            invalidated.add(spot);
+            addFarther(spot, distance, candidates);
+        }
+    }
+
+    private void addFarther (int spot, int distance, Queue<Integer> candidates) {
+        for (int offset : myOffsets) {
+            int next = spot + offset;
+            if (isOpen(next) && myDistances.get(next) == distance + 1) {
+                candidates.add(next);
+            }
+        }
+    }
+
+    private boolean hasCloser (int spot, int distance) {
+        for (int offset : myOffsets) {
+            if (isOpen(spot + offset) && myDistances.get(spot + offset) == distance - 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Give an open spot the best distance its neighbors (or being a source) allow, and put it on the frontier
+    private void seed (int spot, RadixHeap frontier, BitSet touched) {
+        if (! isOpen(spot)) {
+            return;
+        }
+        int best = myIsSource.get(spot) ? 0 : UNREACHED;
+        for (int offset : myOffsets) {
+            int distance = isOpen(spot + offset) ? myDistances.get(spot + offset) : UNREACHED;
+            if (distance != UNREACHED) {
+                best = Math.min(best, distance + 1);
+            }
+        }
+        if (best < myDistances.get(spot)) {
+            myDistances.set(spot, best);
+            touched.set(spot);
+        }
+        if (myDistances.get(spot) != UNREACHED) {
+            frontier.push(myDistances.get(spot), spot);
+        }
+    }
+
+    // Fill in the moves of the thirty-two spots sharing the given word
+    private void fillMoves (int word) {
+        long moves = 0;
+        int first = word * MOVES_PER_WORD;
+        for (int k = 0; k < MOVES_PER_WORD && first + k < myDistances.length(); k += 1) {
+            moves |= (long)closerMove(first + k) << (k * BITS_PER_MOVE);
+        }
+        myMoves[word] = moves;
+    }
+
+    private void setMove (int spot) {
+        int shift = (spot % MOVES_PER_WORD) * BITS_PER_MOVE;
+        long word = myMoves[spot / MOVES_PER_WORD] & ~(3L << shift);
+        myMoves[spot / MOVES_PER_WORD] = word | ((long)closerMove(spot) << shift);
+    }
+
+    // Direction code of a neighbor one step closer to a source, or 0 if there is none
+    private int closerMove (int spot) {
+        int distance = myDistances.get(spot);
+        if (distance == 0 || distance == UNREACHED) {
+            return 0;
+        }
+        for (int d = 0; d < myOffsets.length; d += 1) {
+            if (myDistances.get(spot + myOffsets[d]) == distance - 1) {
+                return d;
+            }
+        }
+        return 0;
+    }
+
+    private int moveOf (int spot) {
+        return (int)(myMoves[spot / MOVES_PER_WORD] >>> ((spot % MOVES_PER_WORD) * BITS_PER_MOVE)) & 3;
+    }
+
+    // Open spots are never on the maze's outer walls, so their neighbors are always in range
+    private boolean isOpen (int spot) {
+        int x = spot / myNumColumns;
+        int y = spot % myNumColumns;
+        return 0 <= spot && spot < myDistances.length() && myMaze.isInBounds(x, y) && myMaze.getState(x, y) != Spot.WALL;
+    }
+}
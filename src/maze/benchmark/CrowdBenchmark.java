@@ -0,0 +1,56 @@
+package maze.benchmark;
+
+import maze.agents.Crowd;
+import maze.agents.FlowField;
+import maze.generators.BraidedGenerator;
+import maze.generators.KruskalGenerator;
+import maze.model.Maze;
+
+
+/**
+ * This class load tests a {@link Crowd}: it reports how many ticks per second each policy
+ * sustains with a given number of agents, along with how often agents were blocked and how
+ * many reached the goal.
+ *
+ * Usage: CrowdBenchmark [rows] [columns] [agents] [ticks] [loop density]
+ *
+ * Agents following the flow field share one field, computed once before the ticks are timed.
+ *
+ * @author Wei Wu
+ */
+public class CrowdBenchmark {
+	public static final int DEFAULT_ROWS = 1001;
+	public static final int DEFAULT_COLUMNS = 1001;
+	public static final int DEFAULT_AGENTS = 100000;
+	public static final int DEFAULT_TICKS = 1000;
+	public static final long SEED = 47;
+
+
+	/**
+	 * Run each policy on the same maze and report its ticks per second.
+	 */
+	public static void main (String[] args) {
+		int rows = SolverBenchmark.argument(args, 0, DEFAULT_ROWS);
+		int columns = SolverBenchmark.argument(args, 1, DEFAULT_COLUMNS);
+		int agents = SolverBenchmark.argument(args, 2, DEFAULT_AGENTS);
+		int ticks = SolverBenchmark.argument(args, 3, DEFAULT_TICKS);
+		double loopDensity = (args.length > 4) ? Double.parseDouble(args[4]) : 0.1;
+
+		Maze maze = new Maze(rows, columns, new BraidedGenerator(new KruskalGenerator(), loopDensity));
+		maze.createMaze(SEED);
+		long start = System.nanoTime();
+		try (FlowField field = new FlowField(maze)) {
+			System.out.printf("maze %d x %d, %d agents, flow field %.1f ms (%d bytes)%n",
+					rows, columns, agents, (System.nanoTime() - start) / 1e6, field.getNumBytes());
+			for (int k = 0; k < SolverBenchmark.DEFAULT_REPETITIONS; k += 1) {
+				for (Crowd.Policy policy : Crowd.Policy.values()) {
+					Crowd crowd = new Crowd(maze, field, agents, policy, SEED + k);
+					double ticksPerSecond = crowd.run(ticks);
+					System.out.printf("%-8s %10.1f ticks/s %14.0f agent moves/s  ticks %d  blocked %d  arrived %d%n",
+							policy, ticksPerSecond, ticksPerSecond * crowd.getNumMoves() / crowd.getTick(),
+							crowd.getTick(), crowd.getNumBlocked(), crowd.getNumArrived());
+				}
+			}
+		}
+	}
+}
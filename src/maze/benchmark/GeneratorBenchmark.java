@@ -0,0 +1,56 @@
+package maze.benchmark;
+
+import maze.generators.AldousBroderGenerator;
+import maze.generators.BacktrackerGenerator;
+import maze.generators.BinaryTreeGenerator;
+import maze.generators.KruskalGenerator;
+import maze.generators.MazeGenerator;
+import maze.generators.PrimGenerator;
+import maze.generators.SidewinderGenerator;
+import maze.generators.WilsonGenerator;
+import maze.model.Maze;
+
+import java.util.List;
+
+
+/**
+ * This class times each maze generator carving the same size maze over and over,
+ * and reports its throughput in spots generated per second.
+ *
+ * Usage: GeneratorBenchmark [rows] [columns] [repetitions]
+ *
+ * @author Wei Wu
+ */
+public class GeneratorBenchmark {
+	public static final List<MazeGenerator> GENERATORS = List.of(
+			new KruskalGenerator(),
+			new BacktrackerGenerator(),
+			new PrimGenerator(),
+			new WilsonGenerator(),
+			new AldousBroderGenerator(),
+			new BinaryTreeGenerator(),
+			new SidewinderGenerator()
+	);
+
+
+	/**
+	 * Carve mazes with every generator and report how fast each one is.
+	 */
+	public static void main (String[] args) {
+		int rows = SolverBenchmark.argument(args, 0, SolverBenchmark.DEFAULT_ROWS);
+		int columns = SolverBenchmark.argument(args, 1, SolverBenchmark.DEFAULT_COLUMNS);
+		int repetitions = SolverBenchmark.argument(args, 2, SolverBenchmark.DEFAULT_REPETITIONS);
+		System.out.printf("maze %d x %d (%d cells)%n", rows, columns, (long)rows * columns);
+
+		for (MazeGenerator generator : GENERATORS) {
+			Maze maze = new Maze(rows, columns, generator);
+			long start = System.nanoTime();
+			for (int k = 0; k < repetitions; k += 1) {
+				maze.createMaze(k);
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%-22s %10.3f ms/maze %14.0f cells/s%n", generator,
+					seconds * 1e3 / repetitions, (double)rows * columns * repetitions / seconds);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package maze.benchmark;
+
+import maze.model.Layout;
+import maze.model.Maze;
+import maze.solvers.BFS;
+import maze.solvers.DFS;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * This class times the same maze solved with its spots stored in each {@link Layout},
+ * to show how the storage order affects search throughput once the maze no longer
+ * fits in cache.
+ *
+ * Usage: LayoutBenchmark [rows] [columns] [repetitions]
+ *
+ * @author Wei Wu
+ */
+public class LayoutBenchmark {
+
+	/**
+	 * Copy one random maze into every layout and solve each copy with DFS and BFS.
+	 */
+	public static void main (String[] args) {
+		int rows = SolverBenchmark.argument(args, 0, SolverBenchmark.DEFAULT_ROWS);
+		int columns = SolverBenchmark.argument(args, 1, SolverBenchmark.DEFAULT_COLUMNS);
+		int repetitions = SolverBenchmark.argument(args, 2, SolverBenchmark.DEFAULT_REPETITIONS);
+
+		Maze original = new Maze(rows, columns);
+		Map<Layout, Maze> mazes = new EnumMap<>(Layout.class);
+		for (Layout layout : Layout.values()) {
+			mazes.put(layout, new Maze(original, layout));
+		}
+		System.out.printf("maze %d x %d (%d cells)%n", rows, columns, (long)rows * columns);
+
+		for (int k = 0; k < repetitions; k += 1) {
+			for (Map.Entry<Layout, Maze> entry : mazes.entrySet()) {
+				Maze maze = entry.getValue();
+				System.out.println(entry.getKey());
+				maze.resetMaze();
+				SolverBenchmark.report(SolverBenchmark.run(new DFS(maze)), maze);
+				maze.resetMaze();
+				SolverBenchmark.report(SolverBenchmark.run(new BFS(maze)), maze);
+			}
+		}
+	}
+}
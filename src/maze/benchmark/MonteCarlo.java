@@ -0,0 +1,155 @@
+package maze.benchmark;
+
+import maze.generators.KruskalGenerator;
+import maze.model.Layout;
+import maze.model.Maze;
+import maze.solvers.Magic;
+import maze.solvers.RandomWalk;
+import maze.solvers.SearchAlgorithm;
+import maze.util.Randomness;
+import maze.util.RunningStats;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.stream.LongStream;
+
+
+/**
+ * This class estimates how long the random searches take to hit the goal by running many
+ * independent trials of each, in parallel, and summarizing how many steps each trial took.
+ *
+ * Usage: MonteCarlo [rows] [columns] [trials] [maximum steps] [seed] [new maze each trial (0 or 1)]
+ *
+ * Trial k makes every random choice (including carving its maze, if each trial gets a new
+ * one) from stream k of the seed (see Randomness.split()), so the same seed always gives the
+ * same trials however they are spread over threads. Each thread keeps its own copy of the
+ * maze and its own running summary, and the summaries are added together at the end, so no
+ * trial's result is ever stored. A trial that has not hit the goal after the maximum number
+ * of steps, or whose search gives up, is counted separately rather than in the distribution.
+ *
+ * @author Wei Wu
+ */
+public class MonteCarlo {
+	public static final int DEFAULT_ROWS = 21;
+	public static final int DEFAULT_COLUMNS = 21;
+	public static final int DEFAULT_TRIALS = 10000;
+	public static final int DEFAULT_MAX_STEPS = 1000000;
+	public static final int DEFAULT_SEED = 48;
+	public static final int HISTOGRAM_BINS = 20;
+	// searches whose every choice can be made from a given source of randomness
+	public static final Map<String, BiFunction<Maze, Random, SearchAlgorithm>> SOLVERS = Map.of(
+			RandomWalk.TITLE, RandomWalk::new,
+			Magic.TITLE, Magic::new
+	);
+
+
+	/**
+	 * Run the trials of each random search and report the distribution of their hitting times.
+	 */
+	public static void main (String[] args) {
+		int rows = SolverBenchmark.argument(args, 0, DEFAULT_ROWS);
+		int columns = SolverBenchmark.argument(args, 1, DEFAULT_COLUMNS);
+		int trials = SolverBenchmark.argument(args, 2, DEFAULT_TRIALS);
+		int maxSteps = SolverBenchmark.argument(args, 3, DEFAULT_MAX_STEPS);
+		long seed = SolverBenchmark.argument(args, 4, DEFAULT_SEED);
+		boolean isNewMaze = SolverBenchmark.argument(args, 5, 0) != 0;
+
+		Maze maze = new Maze(rows, columns, new KruskalGenerator());
+		maze.createMaze(seed);
+		System.out.printf("%d trials on %s %d x %d maze%s, at most %d steps each%n", trials,
+				isNewMaze ? "a new" : "the same", rows, columns, isNewMaze ? " each" : "", maxSteps);
+		for (Map.Entry<String, BiFunction<Maze, Random, SearchAlgorithm>> solver : SOLVERS.entrySet()) {
+			Result result = run(maze, solver.getValue(), trials, maxSteps, seed, isNewMaze);
+			System.out.printf("%-12s %8.1f trials/s  hit %d  out of steps %d  gave up %d%n", solver.getKey(),
+					trials / (result.nanos() / 1e9), result.steps().getCount(), result.numOutOfSteps(), result.numGaveUp());
+			System.out.println("  " + result.steps());
+			printHistogram(result.steps());
+		}
+	}
+
+	/**
+	 * Run the given number of trials of the search made by the given function, in parallel, each on
+	 * a copy of the given maze (or a new maze carved by its generator) and with its own stream of the
+	 * given seed, and return the distribution of the number of steps each took to hit the goal.
+	 */
+	public static Result run (Maze maze, BiFunction<Maze, Random, SearchAlgorithm> solver,
+							  long trials, long maxSteps, long seed, boolean isNewMaze) {
+		ThreadLocal<Maze> mazes = ThreadLocal.withInitial(() -> new Maze(maze, Layout.ROW_MAJOR));
+		long start = System.nanoTime();
+		Trials totals = LongStream.range(0, trials).parallel().collect(Trials::new, (summary, trial) -> {
+			Random random = Randomness.split(seed, trial);
+			Maze copy = mazes.get();
+			if (isNewMaze) {
+				copy.createMaze(random);
+			}
+			else {
+				copy.resetMaze();
+			}
+			summary.add(trial(solver.apply(copy, random), maxSteps));
+		}, Trials::add);
+		return new Result(totals.mySteps, totals.myNumOutOfSteps, totals.myNumGaveUp, System.nanoTime() - start);
+	}
+
+	// Step the given search until it hits the goal and return how many steps that took, or -1 if it
+	// runs out of steps, or -2 if it gives up first
+	private static long trial (SearchAlgorithm search, long maxSteps) {
+		long steps = 0;
+		while (! search.findTheGoal()) {
+			if (steps == maxSteps) {
+				return -1;
+			}
+			boolean isOver = search.step();
+			steps += 1;
+			if (isOver && ! search.findTheGoal()) {
+				return -2;
+			}
+		}
+		return steps;
+	}
+
+	// One line per histogram bin, with a bar as long as its share of the trials
+	private static void printHistogram (RunningStats steps) {
+		long[] bins = steps.getHistogram(HISTOGRAM_BINS);
+		double width = Math.max(1, (double)(steps.getMax() - steps.getMin() + 1) / HISTOGRAM_BINS);
+		for (int k = 0; k < bins.length; k += 1) {
+			int bar = (int)Math.round(60.0 * bins[k] / Math.max(1, steps.getCount()));
+			System.out.printf("  %10.0f %8d %s%n", steps.getMin() + k * width, bins[k], "#".repeat(bar));
+		}
+	}
+
+
+	/**
+	 * Distribution of steps taken by the trials that hit the goal, how many trials did not,
+	 * and how long they all took.
+	 */
+	public record Result(RunningStats steps, long numOutOfSteps, long numGaveUp, long nanos) {}
+
+
+	/**
+	 * Running totals of one thread's trials.
+	 */
+	private static class Trials {
+		private final RunningStats mySteps = new RunningStats();
+		private long myNumOutOfSteps;
+		private long myNumGaveUp;
+
+		void add (long steps) {
+			if (steps == -1) {
+				myNumOutOfSteps += 1;
+			}
+			else if (steps == -2) {
+				myNumGaveUp += 1;
+			}
+			else {
+				mySteps.record(steps);
+			}
+		}
+
+		void add (Trials other) {
+			mySteps.add(other.mySteps);
+			myNumOutOfSteps += other.myNumOutOfSteps;
+			myNumGaveUp += other.myNumGaveUp;
+		}
+	}
+}
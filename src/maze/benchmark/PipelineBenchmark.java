@@ -0,0 +1,90 @@
+package maze.benchmark;
+
+import maze.generators.KruskalGenerator;
+import maze.model.Maze;
+import maze.model.Path;
+import maze.pipeline.Job;
+import maze.pipeline.MazePipeline;
+import maze.pipeline.Stage;
+import maze.solvers.BFS;
+import maze.solvers.SearchAlgorithm;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+
+/**
+ * This class compares generating, solving and writing out many small mazes one at a time,
+ * making a new maze for each, with running the same jobs through a {@link MazePipeline}.
+ *
+ * Usage: PipelineBenchmark [jobs] [rows] [columns] [workers per stage]
+ *
+ * @author Wei Wu
+ */
+public class PipelineBenchmark {
+	public static final int DEFAULT_JOBS = 200000;
+	public static final int DEFAULT_ROWS = 31;
+	public static final int DEFAULT_COLUMNS = 41;
+
+
+	/**
+	 * Run the jobs both ways and report throughput and each stage's metrics.
+	 */
+	public static void main (String[] args) throws IOException {
+		int jobs = SolverBenchmark.argument(args, 0, DEFAULT_JOBS);
+		int rows = SolverBenchmark.argument(args, 1, DEFAULT_ROWS);
+		int columns = SolverBenchmark.argument(args, 2, DEFAULT_COLUMNS);
+		int workers = SolverBenchmark.argument(args, 3, Runtime.getRuntime().availableProcessors());
+		System.out.printf("%d jobs of %d x %d mazes, %d workers per stage%n", jobs, rows, columns, workers);
+
+		for (int k = 0; k < SolverBenchmark.DEFAULT_REPETITIONS; k += 1) {
+			long start = System.nanoTime();
+			oneAtATime(jobs(jobs, rows, columns), OutputStream.nullOutputStream());
+			report("one at a time", jobs, System.nanoTime() - start);
+
+			try (MazePipeline pipeline = new MazePipeline(new KruskalGenerator(), BFS::new,
+					new BufferedOutputStream(OutputStream.nullOutputStream()), workers, MazePipeline.DEFAULT_IN_FLIGHT)) {
+				start = System.nanoTime();
+				pipeline.process(jobs(jobs, rows, columns));
+				report("pipeline", jobs, System.nanoTime() - start);
+				for (Stage stage : pipeline.getStages()) {
+					System.out.println("  " + stage);
+				}
+			}
+		}
+	}
+
+	// Generate, solve and write out each job with a new maze and solver
+	private static void oneAtATime (Stream<Job> jobs, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		for (Job job : (Iterable<Job>)jobs::iterator) {
+			Maze maze = new Maze(job.rows(), job.columns(), new KruskalGenerator());
+			maze.createMaze(job.seed());
+			SearchAlgorithm search = new BFS(maze);
+			while (! search.step()) {
+				// keep stepping until the search is done
+			}
+			Path path = search.getPath();
+			data.writeLong(job.id());
+			data.writeLong(job.seed());
+			data.writeInt(search.getNumOfSteps());
+			data.writeBoolean(path != null);
+			if (path != null) {
+				path.write(data);
+			}
+		}
+		data.flush();
+	}
+
+	private static Stream<Job> jobs (int count, int rows, int columns) {
+		return LongStream.range(0, count).mapToObj(k -> new Job(k, rows, columns, k));
+	}
+
+	private static void report (String name, int jobs, long nanos) {
+		System.out.printf("%-14s %10.1f ms %10.0f jobs/s%n", name, nanos / 1e6, jobs / (nanos / 1e9));
+	}
+}
@@ -0,0 +1,159 @@
+package maze.benchmark;
+
+import maze.generators.BinaryTreeGenerator;
+import maze.generators.MazeGenerator;
+import maze.generators.SidewinderGenerator;
+import maze.model.Layout;
+import maze.model.Maze;
+import maze.model.OffHeapCellStore;
+import maze.model.Path;
+import maze.model.Spot;
+import maze.server.SolveServer;
+import maze.solvers.SearchAlgorithm;
+import maze.solvers.WallFollower;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * This class checks that a maze too big to number with an int (by default just past
+ * 2^31 spots, though up to ~10^10 given the memory) can be carved and solved within a
+ * given memory budget, and exits with an error if it cannot.
+ *
+ * Usage: ScaleCheck [rows] [columns] [memory budget in MB] [seed]
+ *
+ * The maze is stored off the heap, one byte per spot, and carved in turn by each generator
+ * that only ever looks at one row at a time (sidewinder and binary tree), so the only memory
+ * that grows with the maze is the maze itself. The other generators number every room with
+ * an int and keep arrays of them on the heap, so they are not checked here.
+ *
+ * Every solver the server offers is then tried on each maze. A solver must either refuse
+ * the maze up front with a clear message (those that number spots with an int, or whose
+ * grids do not fit in the heap) or solve it: the check fails if the goal is not reached,
+ * if the path found is not an unbroken walk through halls from start to goal, or if the
+ * memory measured afterwards (off the heap plus the live heap) exceeds the budget. At the
+ * default size the wall follower, which keeps nothing but its spot and heading, and Dijkstra,
+ * which numbers spots with a long and keeps two bits per spot, are expected to solve it.
+ * Nothing on the way is recursive.
+ *
+ * @author Wei Wu
+ */
+public class ScaleCheck {
+	// smallest square maze with more spots than an int can index
+	public static final int DEFAULT_SIZE = 46341;
+	public static final int DEFAULT_BUDGET_MB = 3072;
+	public static final int DEFAULT_SEED = 49;
+	// generators that never number rooms, so they can carve mazes of any size
+	public static final List<MazeGenerator> GENERATORS = List.of(
+			new SidewinderGenerator(),
+			new BinaryTreeGenerator()
+	);
+	private static final long BYTES_PER_MB = 1L << 20;
+
+
+	/**
+	 * Carve big mazes, solve them with every solver that accepts them, and report whether they
+	 * stayed within the budget.
+	 */
+	public static void main (String[] args) {
+		int rows = SolverBenchmark.argument(args, 0, DEFAULT_SIZE);
+		int columns = SolverBenchmark.argument(args, 1, DEFAULT_SIZE);
+		long budget = SolverBenchmark.argument(args, 2, DEFAULT_BUDGET_MB) * BYTES_PER_MB;
+		long seed = SolverBenchmark.argument(args, 3, DEFAULT_SEED);
+
+		long cells = Layout.ROW_MAJOR.capacity(rows, columns);
+		long estimate = cells + WallFollower.AUXILIARY_BYTES;
+		System.out.printf("maze %d x %d (%d cells), estimated %d MB of %d MB budget%n",
+				rows, columns, cells, estimate / BYTES_PER_MB, budget / BYTES_PER_MB);
+		if (estimate > budget) {
+			fail("estimate exceeds budget");
+		}
+
+		for (MazeGenerator generator : GENERATORS) {
+			long start = System.nanoTime();
+			try (Maze maze = new Maze(rows, columns, Layout.ROW_MAJOR, OffHeapCellStore::allocate, generator)) {
+				maze.createMaze(seed);
+				System.out.printf("%s carved in %.1f s%n", generator, (System.nanoTime() - start) / 1e9);
+				for (Map.Entry<String, Function<Maze, SearchAlgorithm>> solver : SolveServer.SOLVERS.entrySet()) {
+					maze.resetMaze();
+					check(maze, solver.getKey(), solver.getValue(), budget);
+				}
+			}
+		}
+		System.out.println("ok");
+	}
+
+	// Solve the maze with the given solver, or report why it refused to, failing if it goes wrong
+	private static void check (Maze maze, String name, Function<Maze, SearchAlgorithm> create, long budget) {
+		SearchAlgorithm solver;
+		try {
+			solver = create.apply(maze);
+		}
+		catch (IllegalStateException e) {
+			System.out.printf("  %-12s refused: %s%n", name, e.getMessage());
+			return;
+		}
+		catch (OutOfMemoryError e) {
+			System.out.printf("  %-12s refused: needs more heap than the %d MB available%n",
+					name, Runtime.getRuntime().maxMemory() / BYTES_PER_MB);
+			return;
+		}
+
+		long start = System.nanoTime();
+		long steps = 0;
+		while (! solver.step()) {
+			steps += 1;
+		}
+		if (! solver.findTheGoal()) {
+			fail(name + " did not reach the goal");
+		}
+		Path path = solver.getPath();
+		if (! isSolution(maze, path)) {
+			fail(name + " found a path that is not a walk through halls from start to goal");
+		}
+		long used = offHeapBytes() + heapBytes();
+		System.out.printf("  %-12s solved in %d steps, %.1f s: path of %d moves, %d MB used%n", name,
+				steps + 1, (System.nanoTime() - start) / 1e9, path.length(), used / BYTES_PER_MB);
+		if (used > budget) {
+			fail(name + " used more memory than the budget");
+		}
+	}
+
+	// Returns true only if the given path starts at the start, ends at the goal, and never enters a wall
+	private static boolean isSolution (Maze maze, Path path) {
+		if (path == null || path.getStartX() != maze.getStart().getX() || path.getStartY() != maze.getStart().getY()
+				|| path.getEndX() != maze.getGoal().getX() || path.getEndY() != maze.getGoal().getY()) {
+			return false;
+		}
+		for (Spot spot : path.spots(maze)) {
+			if (spot.getState() == Spot.WALL) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long offHeapBytes () {
+		long bytes = 0;
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			bytes += pool.getMemoryUsed();
+		}
+		return bytes;
+	}
+
+	// Live heap, after asking for a collection so garbage is not counted
+	private static long heapBytes () {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void fail (String reason) {
+		System.out.println("FAILED: " + reason);
+		System.exit(1);
+	}
+}
@@ -0,0 +1,133 @@
+package maze.benchmark;
+
+import maze.server.SolveServer;
+import maze.util.LatencyHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * This class starts a solve server and floods it over loopback with many small solve
+ * requests at once, reporting how many it answers each second and how long they take.
+ *
+ * Each client keeps one connection open and sends its next request as soon as the last
+ * is answered, with the least possible work of its own, so the server is what is measured.
+ *
+ * Usage: ServerBenchmark [requests] [concurrency] [rows] [columns] [solver]
+ *
+ * @author Wei Wu
+ */
+public class ServerBenchmark {
+	public static final int DEFAULT_REQUESTS = 100000;
+	public static final int DEFAULT_CONCURRENCY = 64;
+	// requests sent before timing starts, so the server and client are warmed up
+	public static final int WARM_UP = 5000;
+
+
+	/**
+	 * Send the requests and report throughput and latency, as seen by both client and server.
+	 */
+	public static void main (String[] args) throws InterruptedException {
+		int requests = SolverBenchmark.argument(args, 0, DEFAULT_REQUESTS);
+		int concurrency = SolverBenchmark.argument(args, 1, DEFAULT_CONCURRENCY);
+		int rows = SolverBenchmark.argument(args, 2, SolveServer.DEFAULT_ROWS);
+		int columns = SolverBenchmark.argument(args, 3, SolveServer.DEFAULT_COLUMNS);
+		String solver = (args.length > 4) ? args[4] : "bfs";
+
+		// as the server's own main() does, before any server is made
+		if (System.getProperty(SolveServer.NO_DELAY) == null) {
+			System.setProperty(SolveServer.NO_DELAY, "true");
+		}
+		try (SolveServer server = new SolveServer(0)) {
+			server.start();
+			String path = String.format("/solve?rows=%d&columns=%d&solver=%s&seed=", rows, columns, solver);
+			System.out.printf("%d requests for %d x %d mazes solved by %s, %d at a time, on %s%n",
+					requests, rows, columns, solver, concurrency, server.getThreading());
+
+			send(server.getPort(), path, WARM_UP, concurrency, new LatencyHistogram());
+			server.getSolveLatency().clear();
+			LatencyHistogram latency = new LatencyHistogram();
+			long start = System.nanoTime();
+			long failures = send(server.getPort(), path, requests, concurrency, latency);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("%.0f requests/s  failures %d%n", requests / seconds, failures);
+			System.out.println("client  " + latency);
+			System.out.println("server  " + server.getSolveLatency());
+		}
+	}
+
+	// Send given number of requests from the given number of clients at once; return how many failed
+	private static long send (int port, String path, int requests, int concurrency, LatencyHistogram latency)
+			throws InterruptedException {
+		AtomicInteger next = new AtomicInteger();
+		AtomicLong failures = new AtomicLong();
+		List<Thread> clients = new ArrayList<>();
+		for (int k = 0; k < concurrency; k += 1) {
+			Thread client = new Thread(() -> {
+				try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+					socket.setTcpNoDelay(true);
+					OutputStream out = socket.getOutputStream();
+					InputStream in = new BufferedInputStream(socket.getInputStream());
+					for (int seed = next.getAndIncrement(); seed < requests; seed = next.getAndIncrement()) {
+						long start = System.nanoTime();
+						out.write(("GET " + path + seed + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+						out.flush();
+						if (readResponse(in) == 200) {
+							latency.record(System.nanoTime() - start);
+						}
+						else {
+							failures.incrementAndGet();
+						}
+					}
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			client.start();
+			clients.add(client);
+		}
+		for (Thread client : clients) {
+			client.join();
+		}
+		return failures.get();
+	}
+
+	// Read one response, returning its status code
+	private static int readResponse (InputStream in) throws IOException {
+		String status = readLine(in);
+		int length = 0;
+		for (String header = readLine(in); ! header.isEmpty(); header = readLine(in)) {
+			if (header.regionMatches(true, 0, "Content-Length:", 0, "Content-Length:".length())) {
+				length = Integer.parseInt(header.substring("Content-Length:".length()).trim());
+			}
+		}
+		in.readNBytes(length);
+		return Integer.parseInt(status.split(" ")[1]);
+	}
+
+	private static String readLine (InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		for (int c = in.read(); c != '\n'; c = in.read()) {
+			if (c < 0) {
+				throw new IOException("connection closed");
+			}
+			if (c != '\r') {
+				line.append((char)c);
+			}
+		}
+		return line.toString();
+	}
+}
@@ -0,0 +1,121 @@
+package maze.benchmark;
+
+import maze.generators.BraidedGenerator;
+import maze.generators.KruskalGenerator;
+import maze.model.Maze;
+import maze.model.Terrain;
+import maze.solvers.BFS;
+import maze.solvers.BitFlood;
+import maze.solvers.DFS;
+import maze.solvers.DeadEndFill;
+import maze.solvers.Dijkstra;
+import maze.solvers.Greedy;
+import maze.solvers.JumpPointSearch;
+import maze.solvers.SearchAlgorithm;
+import maze.solvers.Tremaux;
+import maze.solvers.WallFollower;
+
+import java.util.List;
+import java.util.function.Function;
+
+
+/**
+ * This class times maze search algorithms running to completion without any display,
+ * so their throughput can be compared on mazes far too big to animate.
+ *
+ * Usage: SolverBenchmark [rows] [columns] [repetitions] [loop density] [maximum terrain cost]
+ *
+ * A loop density above zero braids loops into the maze, so solvers are compared on a
+ * graph with cycles rather than a perfect maze. A maximum terrain cost above one gives
+ * the maze random terrain, which only Dijkstra takes into account.
+ *
+ * Each step expands one spot (or, for the flood, one whole layer), so the steps reported
+ * compare how many expansions each search needs.
+ *
+ * @author Wei Wu
+ */
+public class SolverBenchmark {
+	public static final int DEFAULT_ROWS = 1001;
+	public static final int DEFAULT_COLUMNS = 1001;
+	public static final int DEFAULT_REPETITIONS = 3;
+	// give up on a solver that has not finished after this many steps
+	public static final long MAX_STEPS = 1L << 40;
+	// solvers that are simply stepped until they finish
+	public static final List<Function<Maze, SearchAlgorithm>> SOLVERS = List.of(
+			BFS::new,
+			maze -> new BitFlood(maze, false),
+			Dijkstra::new,
+			Greedy::new,
+			JumpPointSearch::new,
+			WallFollower::new,
+			Tremaux::new
+	);
+
+
+	/**
+	 * Run each solver on the same maze and report its throughput.
+	 */
+	public static void main (String[] args) {
+		int rows = argument(args, 0, DEFAULT_ROWS);
+		int columns = argument(args, 1, DEFAULT_COLUMNS);
+		int repetitions = argument(args, 2, DEFAULT_REPETITIONS);
+		double loopDensity = (args.length > 3) ? Double.parseDouble(args[3]) : 0;
+		int maxCost = argument(args, 4, Terrain.MIN_COST);
+
+		Maze maze = new Maze(rows, columns, new BraidedGenerator(new KruskalGenerator(), loopDensity));
+		if (maxCost > Terrain.MIN_COST) {
+			maze.setTerrain(Terrain.random(rows, columns, maxCost, rows * 31L + columns));
+		}
+		System.out.printf("maze %d x %d (%d cells) %s%n", rows, columns, (long)rows * columns, maze.getGenerator());
+
+		double dfs = 0;
+		double deadEnds = 0;
+		for (int k = 0; k < repetitions; k += 1) {
+			maze.resetMaze();
+			dfs = report(run(new DFS(maze)), maze);
+			maze.resetMaze();
+			DeadEndFill fill = new DeadEndFill(maze);
+			long start = System.nanoTime();
+			fill.fillAll();
+			deadEnds = report(new Result(fill, System.nanoTime() - start), maze);
+			for (Function<Maze, SearchAlgorithm> solver : SOLVERS) {
+				maze.resetMaze();
+				report(run(solver.apply(maze)), maze);
+			}
+		}
+		System.out.printf("throughput gain of %s over %s: %.2fx%n", DeadEndFill.TITLE, DFS.TITLE, deadEnds / dfs);
+	}
+
+	/**
+	 * Step given solver until it is done and return how long that took.
+	 */
+	public static Result run (SearchAlgorithm solver) {
+		long start = System.nanoTime();
+		long steps = 0;
+		while (! solver.step() && steps < MAX_STEPS) {
+			steps += 1;
+		}
+		return new Result(solver, System.nanoTime() - start);
+	}
+
+	/**
+	 * Print one timing line and return the throughput in cells per second.
+	 */
+	public static double report (Result result, Maze maze) {
+		double seconds = result.nanos() / 1e9;
+		double cellsPerSecond = (double)maze.getNumRows() * maze.getNumColumns() / seconds;
+		System.out.printf("%-20s %10.3f ms %14.0f cells/s  steps %d  auxiliary bytes %d  found %b%n",
+				result.solver(), seconds * 1e3, cellsPerSecond, result.solver().getNumOfSteps(),
+				result.solver().getAuxiliaryBytes(), result.solver().findTheGoal());
+		return cellsPerSecond;
+	}
+
+	static int argument (String[] args, int index, int otherwise) {
+		return (index < args.length) ? Integer.parseInt(args[index]) : otherwise;
+	}
+
+	/**
+	 * Solver that was run and how long it took.
+	 */
+	public record Result(SearchAlgorithm solver, long nanos) {}
+}
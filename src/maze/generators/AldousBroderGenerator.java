@@ -0,0 +1,54 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Direction;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using the Aldous-Broder algorithm.
+ *
+ * A single random walk wanders the grid, knocking through into each room the first time
+ * it enters it, until every room has been entered. Like Wilson's algorithm it produces an
+ * unbiased sample of all perfect mazes, but the walk needs far more steps to cover the grid.
+ *
+ * @author Wei Wu
+ */
+public class AldousBroderGenerator implements MazeGenerator {
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        if (rooms.size() == 0) {
+            return;
+        }
+        Direction[] directions = Direction.values();
+        boolean[] visited = new boolean[rooms.size()];
+        int room = random.nextInt(rooms.size());
+        visited[room] = true;
+        rooms.carve(room);
+        int remaining = rooms.size() - 1;
+        while (remaining > 0) {
+            int next = rooms.neighbor(room, directions[random.nextInt(directions.length)]);
+            if (next >= 0) {
+                if (! visited[next]) {
+                    visited[next] = true;
+                    rooms.join(room, next);
+                    remaining -= 1;
+                }
+                room = next;
+            }
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Aldous-Broder";
+    }
+}
@@ -0,0 +1,64 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Direction;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using an iterative recursive-backtracker (randomized depth-first search).
+ *
+ * From the current room, knock through to a random unvisited neighbor and continue from
+ * there; when there is none, back up to the previous room. The rooms still to back up
+ * through are kept on an explicit stack, so even huge mazes cannot overflow the call stack.
+ * The result has long, winding corridors and few dead ends.
+ *
+ * @author Wei Wu
+ */
+public class BacktrackerGenerator implements MazeGenerator {
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        if (rooms.size() == 0) {
+            return;
+        }
+        boolean[] visited = new boolean[rooms.size()];
+        int[] stack = new int[rooms.size()];
+        int[] choices = new int[Direction.values().length];
+        int top = 0;
+        stack[top] = 0;
+        visited[0] = true;
+        rooms.carve(0);
+        while (top >= 0) {
+            int room = stack[top];
+            int numChoices = 0;
+            for (Direction d : Direction.values()) {
+                int next = rooms.neighbor(room, d);
+                if (next >= 0 && ! visited[next]) {
+                    choices[numChoices++] = next;
+                }
+            }
+            if (numChoices == 0) {
+                top -= 1;
+            }
+            else {
+                int next = choices[random.nextInt(numChoices)];
+                visited[next] = true;
+                rooms.join(room, next);
+                stack[++top] = next;
+            }
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Recursive Backtracker";
+    }
+}
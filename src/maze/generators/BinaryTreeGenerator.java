@@ -0,0 +1,48 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using the binary tree algorithm.
+ *
+ * Each room independently knocks through either its north or its west wall, so the
+ * maze is carved in a single pass with no state beyond the current room. The result
+ * is heavily biased: the top row and left column are single long corridors. Rooms
+ * are never numbered, so there is no limit on the size of the maze.
+ *
+ * @author Wei Wu
+ */
+public class BinaryTreeGenerator implements MazeGenerator {
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        for (int r = 0; r < rooms.getNumRows(); r += 1) {
+            for (int c = 0; c < rooms.getNumColumns(); c += 1) {
+                boolean north = r > 0 && (c == 0 || random.nextBoolean());
+                if (north) {
+                    rooms.join(r, c, r - 1, c);
+                }
+                else if (c > 0) {
+                    rooms.join(r, c, r, c - 1);
+                }
+                else {
+                    rooms.carve(r, c);
+                }
+            }
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Binary Tree";
+    }
+}
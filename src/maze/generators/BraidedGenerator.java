@@ -0,0 +1,87 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Direction;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze with loops, by letting another generator carve a perfect maze
+ * and then knocking out some of the walls that generator left standing.
+ *
+ * Each wall still separating two rooms is removed with the given loop density, so 0 leaves
+ * the perfect maze unchanged and 1 leaves an open grid of pillars. Optionally, a number of
+ * random rectangular open areas are cleared as well, to give searches room to wander.
+ *
+ * @author Wei Wu
+ */
+public class BraidedGenerator implements MazeGenerator {
+    private final MazeGenerator myGenerator;
+    private final double myLoopDensity;
+    private final int myNumOpenAreas;
+    private final int myMaxAreaSize;
+
+
+    /**
+     * Create a generator that adds loops to the mazes made by the given generator.
+     */
+    public BraidedGenerator (MazeGenerator generator, double loopDensity) {
+        this(generator, loopDensity, 0, 0);
+    }
+
+    /**
+     * Create a generator that adds loops, plus the given number of open areas up to the given
+     * number of rooms wide and tall, to the mazes made by the given generator.
+     */
+    public BraidedGenerator (MazeGenerator generator, double loopDensity, int numOpenAreas, int maxAreaSize) {
+        // simple error checking, we will see better ways in the future
+        assert(0 <= loopDensity && loopDensity <= 1 && numOpenAreas >= 0);
+        myGenerator = generator;
+        myLoopDensity = loopDensity;
+        myNumOpenAreas = numOpenAreas;
+        myMaxAreaSize = maxAreaSize;
+    }
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        myGenerator.generate(maze, random);
+        Rooms rooms = new Rooms(maze);
+        if (myLoopDensity > 0) {
+            for (int room = 0; room < rooms.size(); room += 1) {
+                for (Direction d : new Direction[] { Direction.SOUTH, Direction.EAST }) {
+                    int next = rooms.neighbor(room, d);
+                    if (next >= 0 && ! rooms.isJoined(room, next) && random.nextDouble() < myLoopDensity) {
+                        rooms.join(room, next);
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < myNumOpenAreas && myMaxAreaSize > 0 && rooms.size() > 0; k += 1) {
+            int height = 1 + random.nextInt(Math.min(myMaxAreaSize, rooms.getNumRows()));
+            int width = 1 + random.nextInt(Math.min(myMaxAreaSize, rooms.getNumColumns()));
+            int top = random.nextInt(rooms.getNumRows() - height + 1);
+            int left = random.nextInt(rooms.getNumColumns() - width + 1);
+            openArea(maze, 2 * top + 1, 2 * left + 1, 2 * (top + height) - 1, 2 * (left + width) - 1);
+        }
+    }
+
+    // Clear every spot within the given corners, inclusive
+    private void openArea (Maze maze, int top, int left, int bottom, int right) {
+        for (int r = top; r <= bottom; r += 1) {
+            for (int c = left; c <= right; c += 1) {
+                maze.carve(r, c);
+            }
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return String.format("Braided %s (%.2f)", myGenerator, myLoopDensity);
+    }
+}
@@ -0,0 +1,84 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using randomized Kruskal's algorithm.
+ *
+ * The strategy is to start with a grid of disconnected "rooms" separated by walls,
+ * then look at each of the separating walls, in a random order. If tearing down a
+ * wall would not create a loop in the maze, then tear it down. Otherwise, leave it
+ * in place. (Rooms begin to look like corridors as they grow.)
+ *
+ * Based on the maze generator in "Introduction to Programming Using Java" by David J. Eck,
+ * but rooms are tracked with a union-find forest instead of flood-filling room codes,
+ * so each wall is decided in nearly constant time and without recursion.
+ *
+ * @author David J. Eck
+ * @author Wei Wu
+ */
+public class KruskalGenerator implements MazeGenerator {
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        // every room has two walls to number
+        int numRooms = rooms.size(2);
+        // each room starts out as its own set
+        int[] parents = new int[numRooms];
+        for (int k = 0; k < numRooms; k += 1) {
+            parents[k] = k;
+            rooms.carve(k);
+        }
+        // walls are numbered 2 * room for the wall below a room and 2 * room + 1 for the wall to its right
+        int[] walls = new int[2 * numRooms];
+        int numWalls = 0;
+        for (int r = 0; r < rooms.getNumRows(); r += 1) {
+            for (int c = 0; c < rooms.getNumColumns(); c += 1) {
+                int room = rooms.roomAt(r, c);
+                if (r < rooms.getNumRows() - 1) {
+                    walls[numWalls++] = 2 * room;
+                }
+                if (c < rooms.getNumColumns() - 1) {
+                    walls[numWalls++] = 2 * room + 1;
+                }
+            }
+        }
+        // choose a wall randomly and maybe tear it down
+        for (int w = numWalls - 1; w >= 0; w -= 1) {
+            int k = random.nextInt(w + 1);
+            int wall = walls[k];
+            walls[k] = walls[w];
+            int room = wall / 2;
+            int other = (wall % 2 == 0) ? room + rooms.getNumColumns() : room + 1;
+            int root = find(parents, room);
+            int otherRoot = find(parents, other);
+            if (root != otherRoot) {
+                parents[root] = otherRoot;
+                rooms.join(room, other);
+            }
+        }
+    }
+
+    // Returns the set containing the given room, halving the path to it along the way
+    private int find (int[] parents, int room) {
+        while (parents[room] != room) {
+            parents[room] = parents[parents[room]];
+            room = parents[room];
+        }
+        return room;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Kruskal";
+    }
+}
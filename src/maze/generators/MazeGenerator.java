@@ -0,0 +1,23 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Maze;
+
+
+/**
+ * This interface represents a strategy for carving a random maze.
+ *
+ * A generator is given a maze that is solid wall and carves it into a grid of
+ * "rooms" (the spots at odd rows and columns) joined by knocking out the walls
+ * between them. Most generators join the rooms into a spanning tree, so the
+ * result is a perfect maze: exactly one path between any two rooms. A
+ * {@link BraidedGenerator} then adds loops to such a maze.
+ *
+ * @author Wei Wu
+ */
+public interface MazeGenerator {
+    /**
+     * Carve the given maze, which starts out as solid wall, using the given source of randomness.
+     */
+    void generate (Maze maze, Random random);
+}
@@ -0,0 +1,76 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Direction;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using randomized Prim's algorithm.
+ *
+ * The maze grows outward from a single room: rooms next to the maze form a frontier,
+ * and each time a random frontier room is joined to a random neighbor already in the
+ * maze. The result has many short dead ends branching off in every direction.
+ *
+ * @author Wei Wu
+ */
+public class PrimGenerator implements MazeGenerator {
+    private static final byte OUTSIDE = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte INSIDE = 2;
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        if (rooms.size() == 0) {
+            return;
+        }
+        byte[] states = new byte[rooms.size()];
+        int[] frontier = new int[rooms.size()];
+        int[] choices = new int[Direction.values().length];
+        int numFrontier = 0;
+        int first = random.nextInt(rooms.size());
+        states[first] = INSIDE;
+        rooms.carve(first);
+        numFrontier = addFrontier(rooms, states, frontier, numFrontier, first);
+        while (numFrontier > 0) {
+            // remove a random frontier room by moving the last one into its place
+            int k = random.nextInt(numFrontier);
+            int room = frontier[k];
+            frontier[k] = frontier[--numFrontier];
+            int numChoices = 0;
+            for (Direction d : Direction.values()) {
+                int next = rooms.neighbor(room, d);
+                if (next >= 0 && states[next] == INSIDE) {
+                    choices[numChoices++] = next;
+                }
+            }
+            rooms.join(room, choices[random.nextInt(numChoices)]);
+            states[room] = INSIDE;
+            numFrontier = addFrontier(rooms, states, frontier, numFrontier, room);
+        }
+    }
+
+    // Add given room's outside neighbors to the frontier and return the frontier's new size
+    private int addFrontier (Rooms rooms, byte[] states, int[] frontier, int numFrontier, int room) {
+        for (Direction d : Direction.values()) {
+            int next = rooms.neighbor(room, d);
+            if (next >= 0 && states[next] == OUTSIDE) {
+                states[next] = FRONTIER;
+                frontier[numFrontier++] = next;
+            }
+        }
+        return numFrontier;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Prim";
+    }
+}
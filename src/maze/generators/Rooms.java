@@ -0,0 +1,126 @@
+package maze.generators;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+
+
+/**
+ * This class maps between a maze's spots and its grid of rooms, the spots at odd rows
+ * and columns that generators join together by knocking out the walls between them.
+ *
+ * Each room is numbered in row-major order, so generators can keep their bookkeeping
+ * in primitive arrays indexed by room. Mazes with more rooms than an int can number
+ * can still be carved by generators that only ever look at one row at a time, since
+ * rooms can also be carved and joined by their row and column.
+ *
+ * @author Wei Wu
+ */
+final class Rooms {
+    private final Maze myMaze;
+    private final int myNumRows;
+    private final int myNumColumns;
+
+
+    /**
+     * Create the grid of rooms for the given maze.
+     */
+    Rooms (Maze maze) {
+        myMaze = maze;
+        myNumRows = (maze.getNumRows() - 1) / 2;
+        myNumColumns = (maze.getNumColumns() - 1) / 2;
+    }
+
+    /**
+     * Returns number of rows of rooms.
+     */
+    int getNumRows () {
+        return myNumRows;
+    }
+
+    /**
+     * Returns number of columns of rooms.
+     */
+    int getNumColumns () {
+        return myNumColumns;
+    }
+
+    /**
+     * Returns total number of rooms.
+     */
+    int size () {
+        return size(1);
+    }
+
+    /**
+     * Returns total number of rooms, for a generator that numbers the given number of
+     * entries (such as walls) for each room.
+     */
+    int size (int entriesPerRoom) {
+        long size = (long)myNumRows * myNumColumns;
+        if (size * entriesPerRoom > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format("%d rooms are too many for this generator to number; "
+                    + "carve mazes this big with the Sidewinder or Binary Tree generator", size));
+        }
+        return (int)size;
+    }
+
+    /**
+     * Returns number of the room in the given row and column of rooms.
+     */
+    int roomAt (int row, int column) {
+        return row * myNumColumns + column;
+    }
+
+    /**
+     * Returns room next to the given one in the given direction, or -1 if there is none.
+     */
+    int neighbor (int room, Direction direction) {
+        int row = room / myNumColumns + direction.getDX();
+        int column = room % myNumColumns + direction.getDY();
+        if (row < 0 || row >= myNumRows || column < 0 || column >= myNumColumns) {
+            return -1;
+        }
+        return roomAt(row, column);
+    }
+
+    /**
+     * Open up the given room.
+     */
+    void carve (int room) {
+        myMaze.carve(2 * (room / myNumColumns) + 1, 2 * (room % myNumColumns) + 1);
+    }
+
+    /**
+     * Open up the room in the given row and column of rooms.
+     */
+    void carve (int row, int column) {
+        myMaze.carve(2 * row + 1, 2 * column + 1);
+    }
+
+    /**
+     * Open up the rooms in the given rows and columns of rooms, which must be neighbors, and the wall between them.
+     */
+    void join (int row, int column, int otherRow, int otherColumn) {
+        carve(row, column);
+        carve(otherRow, otherColumn);
+        myMaze.carve(row + otherRow + 1, column + otherColumn + 1);
+    }
+
+    /**
+     * Returns true only if the wall between the given rooms, which must be neighbors, has been knocked out.
+     */
+    boolean isJoined (int room, int other) {
+        return myMaze.getState(room / myNumColumns + other / myNumColumns + 1,
+                room % myNumColumns + other % myNumColumns + 1) != Spot.WALL;
+    }
+
+    /**
+     * Open up both given rooms, which must be neighbors, and the wall between them.
+     */
+    void join (int room, int other) {
+        carve(room);
+        carve(other);
+        myMaze.carve(room / myNumColumns + other / myNumColumns + 1, room % myNumColumns + other % myNumColumns + 1);
+    }
+}
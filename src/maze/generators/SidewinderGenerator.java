@@ -0,0 +1,51 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using the sidewinder algorithm.
+ *
+ * Each row is carved into runs of rooms joined east to west; when a run ends, one random
+ * room in it knocks through to the row above. The only state is where the current run
+ * began, so the maze is carved in a single pass. The top row is one long corridor.
+ * Rooms are never numbered, so there is no limit on the size of the maze.
+ *
+ * @author Wei Wu
+ */
+public class SidewinderGenerator implements MazeGenerator {
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        for (int r = 0; r < rooms.getNumRows(); r += 1) {
+            int runStart = 0;
+            for (int c = 0; c < rooms.getNumColumns(); c += 1) {
+                rooms.carve(r, c);
+                boolean lastInRow = c == rooms.getNumColumns() - 1;
+                if (r == 0 || (! lastInRow && random.nextBoolean())) {
+                    if (! lastInRow) {
+                        rooms.join(r, c, r, c + 1);
+                    }
+                }
+                else {
+                    int chosen = runStart + random.nextInt(c - runStart + 1);
+                    rooms.join(r, chosen, r - 1, chosen);
+                    runStart = c + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Sidewinder";
+    }
+}
@@ -0,0 +1,67 @@
+package maze.generators;
+
+import java.util.Random;
+import maze.model.Direction;
+import maze.model.Maze;
+
+
+/**
+ * This class carves a maze using Wilson's algorithm.
+ *
+ * Starting from each room not yet in the maze, take a random walk until it reaches the
+ * maze, remembering only the last direction taken out of each room so that any loops
+ * in the walk are erased. Then carve the loop-erased walk into the maze. Every spanning
+ * tree is equally likely, so the result is an unbiased sample of all perfect mazes.
+ *
+ * @author Wei Wu
+ */
+public class WilsonGenerator implements MazeGenerator {
+
+    /**
+     * @see MazeGenerator#generate(Maze, Random)
+     */
+    @Override
+    public void generate (Maze maze, Random random) {
+        Rooms rooms = new Rooms(maze);
+        if (rooms.size() == 0) {
+            return;
+        }
+        Direction[] directions = Direction.values();
+        boolean[] inMaze = new boolean[rooms.size()];
+        // direction last taken out of each room during the current walk
+        byte[] exits = new byte[rooms.size()];
+        int first = random.nextInt(rooms.size());
+        inMaze[first] = true;
+        rooms.carve(first);
+        for (int start = 0; start < rooms.size(); start += 1) {
+            // walk randomly until reaching the maze, overwriting exits as loops are revisited
+            int room = start;
+            while (! inMaze[room]) {
+                int next;
+                int exit;
+                do {
+                    exit = random.nextInt(directions.length);
+                    next = rooms.neighbor(room, directions[exit]);
+                } while (next < 0);
+                exits[room] = (byte)exit;
+                room = next;
+            }
+            // carve the loop-erased walk
+            room = start;
+            while (! inMaze[room]) {
+                int next = rooms.neighbor(room, directions[exits[room]]);
+                inMaze[room] = true;
+                rooms.join(room, next);
+                room = next;
+            }
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return "Wilson";
+    }
+}
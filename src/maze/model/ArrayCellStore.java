@@ -0,0 +1,72 @@
+package maze.model;
+
+import java.util.Arrays;
+
+
+/**
+ * This class stores the state of every spot in a maze as one byte in ordinary arrays.
+ *
+ * Since a single array cannot hold more than about two billion bytes, the spots are
+ * split into chunks of at most CHUNK_SIZE, so the store is limited only by the heap.
+ *
+ * Every spot starts out as a wall. Marks are stamped with an epoch, so clearing them
+ * takes no time at all (see {@link EpochCellStore}).
+ *
+ * @author Wei Wu
+ */
+public class ArrayCellStore extends EpochCellStore {
+    // bytes in each chunk of storage (a power of two, so indices split with shifts and masks)
+    public static final int CHUNK_BITS = 30;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final long mySize;
+    private final byte[][] myStates;
+
+
+    /**
+     * Create a store for the given number of spots.
+     */
+    public ArrayCellStore (long size) {
+        // simple error checking, we will see better ways in the future
+        assert(0 <= size);
+        mySize = size;
+        myStates = new byte[(int)((size + CHUNK_SIZE - 1) >>> CHUNK_BITS)][];
+        for (int k = 0; k < myStates.length; k += 1) {
+            myStates[k] = new byte[(int)Math.min(CHUNK_SIZE, size - ((long)k << CHUNK_BITS))];
+        }
+    }
+
+    /**
+     * @see CellStore#size()
+     */
+    @Override
+    public long size () {
+        return mySize;
+    }
+
+    /**
+     * @see CellStore#fillWalls()
+     */
+    @Override
+    public void fillWalls () {
+        for (byte[] chunk : myStates) {
+            Arrays.fill(chunk, (byte)Spot.WALL);
+        }
+    }
+
+    /**
+     * @see EpochCellStore#getByte(long)
+     */
+    @Override
+    protected int getByte (long index) {
+        return myStates[(int)(index >>> CHUNK_BITS)][(int)(index & (CHUNK_SIZE - 1))];
+    }
+
+    /**
+     * @see EpochCellStore#setByte(long, int)
+     */
+    @Override
+    protected void setByte (long index, int value) {
+        myStates[(int)(index >>> CHUNK_BITS)][(int)(index & (CHUNK_SIZE - 1))] = (byte)value;
+    }
+}
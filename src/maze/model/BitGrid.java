@@ -0,0 +1,145 @@
+package maze.model;
+
+import java.util.Arrays;
+
+
+/**
+ * This class represents a grid of bits packed sixty-four columns to a word,
+ * so that whole runs of a row can be tested and combined at once.
+ *
+ * Bit c of a row lives in word c / 64 at position c % 64, so shifting a word left
+ * moves its bits one column east.
+ *
+ * @author Wei Wu
+ */
+public class BitGrid {
+    private final int myNumRows;
+    private final int myNumColumns;
+    private final int myWordsPerRow;
+    private final long[] myBits;
+
+
+    /**
+     * Create a grid of the given size with every bit cleared.
+     */
+    public BitGrid (int rows, int columns) {
+        myNumRows = rows;
+        myNumColumns = columns;
+        myWordsPerRow = (columns + Long.SIZE - 1) / Long.SIZE;
+        // words are numbered with an int, sixty-four spots to each
+        myBits = new long[Maze.getIntSize(rows, myWordsPerRow, "Bit grid")];
+    }
+
+    /**
+     * Returns a grid with a bit set for every spot in the given maze that is not a wall.
+     */
+    public static BitGrid openSpots (Maze maze) {
+        BitGrid grid = new BitGrid(maze.getNumRows(), maze.getNumColumns());
+        grid.setOpenSpots(maze);
+        return grid;
+    }
+
+    /**
+     * Sets exactly the bits for the spots in the given maze, which must be the grid's size, that are not walls.
+     */
+    public void setOpenSpots (Maze maze) {
+        // simple error checking, we will see better ways in the future
+        assert(maze.getNumRows() == myNumRows && maze.getNumColumns() == myNumColumns);
+        clear();
+        for (int r = 0; r < myNumRows; r += 1) {
+            for (int c = 0; c < myNumColumns; c += 1) {
+                if (maze.getState(r, c) != Spot.WALL) {
+                    set(r, c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of rows in the grid.
+     */
+    public int getNumRows () {
+        return myNumRows;
+    }
+
+    /**
+     * Returns number of columns in the grid.
+     */
+    public int getNumColumns () {
+        return myNumColumns;
+    }
+
+    /**
+     * Returns number of words used to store each row.
+     */
+    public int getWordsPerRow () {
+        return myWordsPerRow;
+    }
+
+    /**
+     * Returns true only if the bit at the given point is set.
+     */
+    public boolean get (int row, int column) {
+        return (myBits[wordOf(row, column)] & (1L << column)) != 0;
+    }
+
+    /**
+     * Sets the bit at the given point.
+     */
+    public void set (int row, int column) {
+        myBits[wordOf(row, column)] |= 1L << column;
+    }
+
+    /**
+     * Clears the bit at the given point.
+     */
+    public void clear (int row, int column) {
+        myBits[wordOf(row, column)] &= ~(1L << column);
+    }
+
+    /**
+     * Clears every bit in the grid.
+     */
+    public void clear () {
+        Arrays.fill(myBits, 0);
+    }
+
+    /**
+     * Returns the given word of the given row, or 0 if either is outside the grid.
+     */
+    public long getWord (int row, int word) {
+        if (row < 0 || row >= myNumRows || word < 0 || word >= myWordsPerRow) {
+            return 0;
+        }
+        return myBits[row * myWordsPerRow + word];
+    }
+
+    /**
+     * Replaces the given word of the given row.
+     */
+    public void setWord (int row, int word, long bits) {
+        myBits[row * myWordsPerRow + word] = bits;
+    }
+
+    /**
+     * Returns the packed words backing this grid, row after row.
+     */
+    public long[] getWords () {
+        return myBits;
+    }
+
+    /**
+     * Returns number of bits set in the grid.
+     */
+    public long count () {
+        long total = 0;
+        for (long word : myBits) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+
+    private int wordOf (int row, int column) {
+        return row * myWordsPerRow + column / Long.SIZE;
+    }
+}
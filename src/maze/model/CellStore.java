@@ -0,0 +1,58 @@
+package maze.model;
+
+
+/**
+ * This interface represents the storage holding the state of every spot in a maze.
+ *
+ * Spots are addressed by a single index, assigned by the maze's {@link Layout},
+ * so the same maze can be stored in whatever order suits its size and use.
+ *
+ * Some stores hold resources outside the Java heap, so a store should be closed
+ * once its maze is no longer needed.
+ *
+ * @author Wei Wu
+ */
+public interface CellStore extends AutoCloseable {
+    /**
+     * Returns number of spots this store can hold.
+     */
+    long size ();
+
+    /**
+     * Returns state of the spot at the given index.
+     */
+    int getState (long index);
+
+    /**
+     * Replaces state of the spot at the given index.
+     */
+    void setState (long index, int state);
+
+    /**
+     * Turns every spot back into a wall, as before a maze is carved; by default one spot at a time.
+     */
+    default void fillWalls () {
+        for (long k = 0; k < size(); k += 1) {
+            setState(k, Spot.WALL);
+        }
+    }
+
+    /**
+     * Turns every spot that is not a wall back into an empty hall, erasing the marks left
+     * by a search; by default one spot at a time.
+     */
+    default void clearMarks () {
+        for (long k = 0; k < size(); k += 1) {
+            if (getState(k) != Spot.WALL) {
+                setState(k, Spot.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Release any resources held by this store; by default there are none.
+     */
+    @Override
+    default void close () {
+    }
+}
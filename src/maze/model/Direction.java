@@ -0,0 +1,81 @@
+package maze.model;
+
+
+/**
+ * This class represents the four directions a search can move between spots in a maze.
+ *
+ * A direction's ordinal fits in two bits, so moves can be stored compactly.
+ *
+ * @author Wei Wu
+ */
+public enum Direction {
+    NORTH(-1, 0),
+    EAST(0, 1),
+    SOUTH(1, 0),
+    WEST(0, -1);
+
+    private static final Direction[] ALL = values();
+
+    private final int myDX;
+    private final int myDY;
+
+
+    Direction (int dx, int dy) {
+        myDX = dx;
+        myDY = dy;
+    }
+
+    /**
+     * Returns change in row when moving in this direction.
+     */
+    public int getDX () {
+        return myDX;
+    }
+
+    /**
+     * Returns change in column when moving in this direction.
+     */
+    public int getDY () {
+        return myDY;
+    }
+
+    /**
+     * Returns direction a quarter turn clockwise from this one.
+     */
+    public Direction turnRight () {
+        return ALL[(ordinal() + 1) % ALL.length];
+    }
+
+    /**
+     * Returns direction a quarter turn counter-clockwise from this one.
+     */
+    public Direction turnLeft () {
+        return ALL[(ordinal() + ALL.length - 1) % ALL.length];
+    }
+
+    /**
+     * Returns direction opposite to this one.
+     */
+    public Direction reverse () {
+        return ALL[(ordinal() + 2) % ALL.length];
+    }
+
+    /**
+     * Returns direction with the given two-bit code (its ordinal).
+     */
+    public static Direction fromCode (int code) {
+        return ALL[code & 3];
+    }
+
+    /**
+     * Returns direction that leads from one spot to an adjacent one, or null if they are not adjacent.
+     */
+    public static Direction between (Spot from, Spot to) {
+        for (Direction d : ALL) {
+            if (from.getX() + d.myDX == to.getX() && from.getY() + d.myDY == to.getY()) {
+                return d;
+            }
+        }
+        return null;
+    }
+}
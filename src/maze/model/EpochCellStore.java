@@ -0,0 +1,68 @@
+package maze.model;
+
+
+/**
+ * This class keeps the state of each spot in one byte so that every mark left by a
+ * search can be erased at once: the low two bits hold the state and the rest hold the
+ * epoch in which it was set. Clearing the marks just starts a new epoch, after which any
+ * path or visited mark from an earlier epoch reads as empty. Walls belong to no epoch.
+ *
+ * Once the epochs run out, the next clear really rewrites every stale mark, so clearing
+ * costs one pass over the spots for every NUM_EPOCHS - 1 clears.
+ *
+ * @author Wei Wu
+ */
+abstract class EpochCellStore implements CellStore {
+    static final int NUM_EPOCHS = 1 << (Byte.SIZE - 2);
+    private static final int STATE_MASK = 3;
+
+    private int myEpoch;
+
+
+    /**
+     * Returns the byte stored for the spot at the given index.
+     */
+    protected abstract int getByte (long index);
+
+    /**
+     * Replaces the byte stored for the spot at the given index.
+     */
+    protected abstract void setByte (long index, int value);
+
+    /**
+     * @see CellStore#getState(long)
+     */
+    @Override
+    public int getState (long index) {
+        int value = getByte(index) & 0xFF;
+        int state = value & STATE_MASK;
+        if (state == Spot.WALL || (value >>> 2) == myEpoch) {
+            return state;
+        }
+        return Spot.EMPTY;
+    }
+
+    /**
+     * @see CellStore#setState(long, int)
+     */
+    @Override
+    public void setState (long index, int state) {
+        setByte(index, (state == Spot.WALL) ? Spot.WALL : (myEpoch << 2) | state);
+    }
+
+    /**
+     * @see CellStore#clearMarks()
+     */
+    @Override
+    public void clearMarks () {
+        myEpoch = (myEpoch + 1) % NUM_EPOCHS;
+        if (myEpoch == 0) {
+            // stale marks from the last time round would come back to life, so erase them for real
+            for (long k = 0; k < size(); k += 1) {
+                if ((getByte(k) & STATE_MASK) != Spot.WALL) {
+                    setByte(k, Spot.EMPTY);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package maze.model;
+
+
+/**
+ * This class represents the order in which a maze's spots are laid out in its {@link CellStore}.
+ *
+ * Row-major order keeps each row together, but a spot's north and south neighbors
+ * are a whole row away, which on wide mazes means a cache miss (and often a TLB miss)
+ * for every vertical move. Z-order and tiled layouts keep small square blocks of the
+ * maze together, so all four neighbors are usually close by.
+ *
+ * @author Wei Wu
+ */
+public enum Layout {
+    /**
+     * Each row in turn, as in a Spot[rows][columns] array.
+     */
+    ROW_MAJOR {
+        @Override
+        public long index (int row, int column, int numColumns) {
+            return (long)row * numColumns + column;
+        }
+    },
+
+    /**
+     * Z-order (Morton) curve within square tiles of TILE_SIZE x TILE_SIZE spots: the bits of
+     * the row and column within a tile are interleaved, and the tiles themselves are in
+     * row-major order, so a maze much wider than it is tall is not padded out to a square.
+     */
+    MORTON {
+        @Override
+        public long index (int row, int column, int numColumns) {
+            return tileOf(row, column, numColumns) * TILE_SIZE * TILE_SIZE
+                    + ((spread(row % TILE_SIZE) << 1) | spread(column % TILE_SIZE));
+        }
+    },
+
+    /**
+     * Square tiles of TILE_SIZE x TILE_SIZE spots, each stored in row-major order,
+     * with the tiles themselves in row-major order.
+     */
+    TILED {
+        @Override
+        public long index (int row, int column, int numColumns) {
+            return tileOf(row, column, numColumns) * TILE_SIZE * TILE_SIZE + (row % TILE_SIZE) * TILE_SIZE + column % TILE_SIZE;
+        }
+    };
+
+    // width and height of each tile in the TILED and MORTON layouts (a power of two)
+    public static final int TILE_SIZE = 64;
+
+
+    /**
+     * Returns index of the spot at the given point within a maze with the given number of columns.
+     */
+    public abstract long index (int row, int column, int numColumns);
+
+    /**
+     * Returns number of indices needed to store a maze of the given size, including any padding.
+     *
+     * Within a maze padded out to whole tiles, every layout's index grows with both row and
+     * column, so the last spot is the largest index.
+     */
+    public long capacity (int rows, int columns) {
+        if (this != ROW_MAJOR) {
+            return index(roundUp(rows) - 1, roundUp(columns) - 1, roundUp(columns)) + 1;
+        }
+        return index(rows - 1, columns - 1, columns) + 1;
+    }
+
+    // Number of the tile holding the given point, counting tiles in row-major order
+    private static long tileOf (int row, int column, int numColumns) {
+        long tilesPerRow = (numColumns + TILE_SIZE - 1) / TILE_SIZE;
+        return (row / TILE_SIZE) * tilesPerRow + column / TILE_SIZE;
+    }
+
+    // Spread the bits of the given value apart so that there is an empty bit between each of them
+    private static long spread (int value) {
+        long x = value & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+    private static int roundUp (int size) {
+        return (size + TILE_SIZE - 1) / TILE_SIZE * TILE_SIZE;
+    }
+}
@@ -1,50 +1,162 @@
 package maze.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.function.LongFunction;
+import maze.generators.KruskalGenerator;
+import maze.generators.MazeGenerator;
+import maze.util.Randomness;
 
 
 /**
  * This class represents a maze with a starting point in the top-left
  * corner and the goal in the bottom-right corner.
  *
- * The maze is created randomly and is guaranteed not to have any cycles
- * in the paths through the maze (which could lead to infinite loops for an
- * algorithm searching for a solution).
+ * The maze is created randomly by its {@link MazeGenerator} (randomized Kruskal
+ * by default), which guarantees there are no cycles in the paths through the
+ * maze (which could lead to infinite loops for an algorithm searching for a
+ * solution), unless the generator deliberately braids in loops. Walls can still be
+ * added or removed afterwards (see setWall()), and every {@link MazeListener} is told.
  *
- * Maze spots are accessed by their point in (row, column) order
+ * Maze spots are accessed by their point in (row, column) order, but their states
+ * are stored in whatever order the maze's {@link Layout} chooses, in whatever
+ * {@link CellStore} it is given (on the heap by default). A maze should be closed
+ * once it is no longer needed, to release storage held outside the heap.
  *
  * @author Robert C. Duvall
  * @author Shannon Pollard
- * @author David J. Eck
  */
-public class Maze {
+public class Maze implements AutoCloseable {
 	// size of maze's grid of spots, including its outer border of walls
 	private final int myNumRows;
 	private final int myNumColumns;
+	// order in which spots' states are stored
+	private final Layout myLayout;
+	// makes storage for a given number of spots
+	private final LongFunction<CellStore> myStorage;
+	// carves halls out of a maze of solid walls
+	private final MazeGenerator myGenerator;
 	// states making up the maze
-	private Spot[][] myMaze;
+	private CellStore myMaze;
+	// cost of moving into each spot, or null if every move costs the same
+	private Terrain myTerrain;
+	// told about every change to the maze's spots, one change at a time (guarded by itself)
+	private final List<MazeListener> myListeners = new ArrayList<>();
+	// whether anyone is listening, so writers see a new listener without taking the lock
+	private volatile boolean hasListeners;
 
 
 	/**
 	 * Create a maze of a given size.
 	 */
 	public Maze (int rows, int columns) {
+		this(rows, columns, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Create a maze of a given size carved by the given generator.
+	 */
+	public Maze (int rows, int columns, MazeGenerator generator) {
+		this(rows, columns, Layout.ROW_MAJOR, ArrayCellStore::new, generator);
+	}
+
+	/**
+	 * Create a maze of a given size whose states are stored in the given layout.
+	 */
+	public Maze (int rows, int columns, Layout layout) {
+		this(rows, columns, layout, ArrayCellStore::new);
+	}
+
+	/**
+	 * Create a maze of a given size whose states are stored in the given layout, in storage
+	 * made by the given function (for example, OffHeapCellStore::allocate).
+	 */
+	public Maze (int rows, int columns, Layout layout, LongFunction<CellStore> storage) {
+		this(rows, columns, layout, storage, new KruskalGenerator());
+	}
+
+	/**
+	 * Create a maze of a given size carved by the given generator, whose states are stored
+	 * in the given layout, in storage made by the given function.
+	 */
+	public Maze (int rows, int columns, Layout layout, LongFunction<CellStore> storage, MazeGenerator generator) {
 		// simple error checking, we will see better ways in the future
 		assert(rows > 0 && columns > 0);
 		myNumRows = rows;
 		myNumColumns = columns;
+		myLayout = layout;
+		myStorage = storage;
+		myGenerator = generator;
 		createMaze();
 	}
 
+	/**
+	 * Returns a maze over the given store, which already holds a maze of the given size in the
+	 * given layout (for example, one saved earlier with OffHeapCellStore.map()); its spots are
+	 * kept as they are rather than carved again, though createMaze() later carves a new maze
+	 * into the same store with the given generator. Closing the maze closes the store.
+	 */
+	public static Maze attach (int rows, int columns, Layout layout, CellStore store, MazeGenerator generator) {
+		// simple error checking, we will see better ways in the future
+		assert(rows > 0 && columns > 0 && store.size() >= layout.capacity(rows, columns));
+		return new Maze(rows, columns, layout, store, generator);
+	}
+
+	// Create a maze over the given store without carving it
+	private Maze (int rows, int columns, Layout layout, CellStore store, MazeGenerator generator) {
+		myNumRows = rows;
+		myNumColumns = columns;
+		myLayout = layout;
+		myStorage = size -> store;
+		myGenerator = generator;
+		myMaze = store;
+	}
+
+	/**
+	 * Create a copy of the given maze, with the same walls and states, stored in the given layout.
+	 */
+	public Maze (Maze other, Layout layout) {
+		myNumRows = other.myNumRows;
+		myNumColumns = other.myNumColumns;
+		myLayout = layout;
+		myStorage = ArrayCellStore::new;
+		myGenerator = other.myGenerator;
+		myTerrain = other.myTerrain;
+		myMaze = myStorage.apply(layout.capacity(myNumRows, myNumColumns));
+		for (int r = 0; r < myNumRows; r+=1) {
+			for (int c = 0; c < myNumColumns; c+=1) {
+				setState(r, c, other.getState(r, c));
+			}
+		}
+	}
+
 	/**
 	 * Replace existing maze with a random maze of the same size.
 	 */
 	public void createMaze () {
+		createMaze(Randomness.ourRandom);
+	}
+
+	/**
+	 * Replace existing maze with the random maze of the same size determined by the given seed.
+	 */
+	public void createMaze (long seed) {
+		createMaze(new Random(seed));
+	}
+
+	/**
+	 * Replace existing maze with a maze of the same size carved using the given source of randomness.
+	 */
+	public void createMaze (Random random) {
 		// simple error checking, we will see better ways in the future
 		assert(myNumRows > 0 && myNumColumns > 0);
-		setMaze(myNumRows, myNumColumns);
+		// reuse existing storage, which is already the right size
+		if (myMaze == null) {
+			myMaze = myStorage.apply(myLayout.capacity(myNumRows, myNumColumns));
+		}
+		myMaze.fillWalls();
+		myGenerator.generate(this, random);
 	}
 
 	/**
@@ -61,6 +173,43 @@ public class Maze {
 		return myNumColumns;
 	}
 
+	/**
+	 * Returns order in which the maze's spots are stored.
+	 */
+	public Layout getLayout () {
+		return myLayout;
+	}
+
+	/**
+	 * Returns generator used to carve this maze.
+	 */
+	public MazeGenerator getGenerator () {
+		return myGenerator;
+	}
+
+	/**
+	 * Returns cost of moving into each of the maze's spots, or null if every move costs the same.
+	 */
+	public Terrain getTerrain () {
+		return myTerrain;
+	}
+
+	/**
+	 * Replaces cost of moving into each of the maze's spots; null makes every move cost the same.
+	 */
+	public void setTerrain (Terrain terrain) {
+		// simple error checking, we will see better ways in the future
+		assert(terrain == null || (terrain.getNumRows() == myNumRows && terrain.getNumColumns() == myNumColumns));
+		myTerrain = terrain;
+	}
+
+	/**
+	 * Returns cost of moving into maze's spot at given point.
+	 */
+	public int getCost (int x, int y) {
+		return (myTerrain == null) ? Terrain.MIN_COST : myTerrain.getCost(x, y);
+	}
+
 	/**
 	 * Returns maze's starting spot in the top-left corner.
 	 */
@@ -93,13 +242,111 @@ public class Maze {
 		return 0 <= x && x < myNumRows && 0 <= y && y < myNumColumns;
 	}
 	
+	/**
+	 * Returns number of spots in a maze of the given size, for the given user (such as a solver)
+	 * that numbers them row * columns + column in an int; a maze with more spots than an int can
+	 * number is an IllegalStateException naming the user, rather than an index that wraps around
+	 */
+	public static int getIntSize (int rows, int columns, String user) {
+		long size = (long)rows * columns;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException(String.format("%s numbers spots with an int, so it cannot handle "
+					+ "a %d x %d maze (%d spots)", user, rows, columns, size));
+		}
+		return (int)size;
+	}
+
 	/**
 	 * Returns maze's spot at given point
 	 */
 	public Spot getSpot (int x, int y) {
 		// simple error checking, we will see better ways in the future
 		assert(isValid(x, y));
-		return myMaze[x][y];
+		return new Spot(this, x, y, distanceToGoal(x, y));
+	}
+
+	/**
+	 * Returns state of maze's spot at given point, without making a Spot for it
+	 */
+	public int getState (int x, int y) {
+		return myMaze.getState(myLayout.index(x, y, myNumColumns));
+	}
+
+	/**
+	 * Turns maze's spot at given point into an empty hall, as generators carve out the maze
+	 */
+	public void carve (int x, int y) {
+		// simple error checking, we will see better ways in the future
+		assert(isInBounds(x, y));
+		setState(x, y, Spot.EMPTY);
+	}
+
+	/**
+	 * Marks maze's hall at given point with given state (PATH, VISITED or EMPTY), as when
+	 * replaying a search; walls are left alone
+	 */
+	public void setMark (int x, int y, int state) {
+		// simple error checking, we will see better ways in the future
+		assert(state != Spot.WALL);
+		if (getState(x, y) != Spot.WALL) {
+			setState(x, y, state);
+		}
+	}
+
+	/**
+	 * Turns maze's spot at given point into a wall or, if it was a wall, into an empty hall;
+	 * the outer walls cannot be changed, and a hall keeps its mark unless it becomes a wall
+	 */
+	public void setWall (int x, int y, boolean isWall) {
+		// simple error checking, we will see better ways in the future
+		assert(isInBounds(x, y));
+		if ((getState(x, y) == Spot.WALL) != isWall) {
+			setState(x, y, isWall ? Spot.WALL : Spot.EMPTY);
+		}
+	}
+
+	/**
+	 * Turns maze's spot at given point into a wall if it is a hall, or into an empty hall if it is a wall
+	 */
+	public void toggleWall (int x, int y) {
+		setWall(x, y, getState(x, y) != Spot.WALL);
+	}
+
+	/**
+	 * Starts telling the given listener about every change to the maze's spots
+	 */
+	public void addListener (MazeListener listener) {
+		synchronized (myListeners) {
+			myListeners.add(listener);
+			hasListeners = true;
+		}
+	}
+
+	/**
+	 * Stops telling the given listener about changes to the maze's spots
+	 */
+	public void removeListener (MazeListener listener) {
+		synchronized (myListeners) {
+			myListeners.remove(listener);
+			hasListeners = ! myListeners.isEmpty();
+		}
+	}
+
+	// Changes state of maze's spot at given point; while anyone is listening, changes made by
+	// several threads at once (as by a parallel search) are made and told one at a time
+	void setState (int x, int y, int state) {
+		long index = myLayout.index(x, y, myNumColumns);
+		if (! hasListeners) {
+			myMaze.setState(index, state);
+			return;
+		}
+		synchronized (myListeners) {
+			int oldState = myMaze.getState(index);
+			myMaze.setState(index, state);
+			for (MazeListener listener : myListeners) {
+				listener.stateChanged(x, y, oldState, state);
+			}
+		}
 	}
 
 	/**
@@ -126,119 +373,41 @@ public class Maze {
 	}
 
 	/**
-	 * Resets maze by erasing "path" and "visited" spots, leaving only walls and empty halls
+	 * Returns given spot's neighbor in the given direction, or null if it is not within the maze's outer wall.
+	 */
+	public Spot getNeighbor (Spot center, Direction direction) {
+		int x = center.getX() + direction.getDX();
+		int y = center.getY() + direction.getDY();
+		return isInBounds(x, y) ? getSpot(x, y) : null;
+	}
+
+	/**
+	 * Resets maze by erasing "path" and "visited" spots, leaving only walls and empty halls;
+	 * the built-in stores do this without visiting every spot
 	 */
 	public void resetMaze () {
 		// simple error checking, we will see better ways in the future
 		assert(myMaze != null);
-		for (int r = 0; r < myNumRows; r+=1) {
-			for (int c = 0; c < myNumColumns; c+=1) {
-				getSpot(r, c).markAsEmpty();
+		synchronized (myListeners) {
+			// cleared under the lock, so no change lands between the clearing and its report
+			myMaze.clearMarks();
+			for (MazeListener listener : myListeners) {
+				listener.marksCleared();
 			}
 		}
 	}
 
 
-	// Turn maze of states into Spots for easier use by search algorithms
-	private void setMaze (int rows, int cols) {
-		int[][] states = createMaze(rows, cols);
-		myMaze = new Spot[rows][cols];
-		for (int r = 0; r < rows; r+=1) {
-			for (int c = 0; c < cols; c+=1) {
-				myMaze[r][c] = new Spot(r, c, states[r][c], distanceToGoal(r, c));
-			}
-		}
+	/**
+	 * Release the maze's storage; the maze cannot be used afterwards.
+	 */
+	@Override
+	public void close () {
+		myMaze.close();
 	}
 
 	// Compute "Manhattan" distance from given point to maze's goal point
 	private int distanceToGoal (int x, int y) {
 		return (myNumRows-2)-x + (myNumColumns-2)-y;
 	}
-
-	/*
-	 * Remaining code is from "Introduction to Programming Using Java" by David J. Eck.
-	 */
-	// Create new random maze that has no cycles with given dimensions
-	private int[][] createMaze (int rows, int cols) {
-		// Create a random maze.  The strategy is to start with
-		// a grid of disconnected "rooms" separated by walls,
-		// then look at each of the separating walls, in a random
-		// order.  If tearing down a wall would not create a loop
-		// in the maze, then tear it down.  Otherwise, leave it in place.
-		int[][] states = new int[rows][cols];
-		// start with everything being a wall
-		for (int r = 0; r < rows; r+=1) {
-			Arrays.fill(states[r], Spot.WALL);
-		}
-		int[] wallRow = new int[(rows*cols)/2];  // position of walls between rooms
-		int[] wallCol = new int[(rows*cols)/2];
-		// make a grid of empty rooms
-		int emptyCt = 0; // number of rooms
-		int wallCt = 0;  // number of walls
-		for (int r = 1; r < rows-1; r+=2)  {
-			for (int c = 1; c < cols-1; c+=2) {
-				emptyCt++;
-				states[r][c] = -emptyCt;  // each room is represented by a different negative number
-				if (r < rows-2) {  // record info about wall below this room
-					wallRow[wallCt] = r+1;
-					wallCol[wallCt] = c;
-					wallCt += 1;
-				}
-				if (c < cols-2) {  // record info about wall to right of this room
-					wallRow[wallCt] = r;
-					wallCol[wallCt] = c+1;
-					wallCt += 1;
-				}
-			}
-		}
-		// choose a wall randomly and maybe tear it down
-		for (int w = wallCt-1; w > 0; w-=1) {
-			int r = (int)(Math.random() * w);
-			tearDown(states, wallRow[r], wallCol[r]);
-			wallRow[r] = wallRow[w];
-			wallCol[r] = wallCol[w];
-		}
-		// replace negative values in maze[][] with emptyCode
-		for (int r = 1; r < rows-1; r+=1) {
-			for (int c = 1; c < cols-1; c+=1) {
-				if (states[r][c] < 0) {
-					states[r][c] = Spot.EMPTY;
-				}
-			}
-		}
-		return states;
-	}
-
-	// Removes a wall, unless doing so makes a cycle in the maze
-	private void tearDown (int[][] states, int row, int col) {
-		// Tear down a wall, unless doing so will form a loop.  Tearing down a wall
-		// joins two "rooms" into one "room".  (Rooms begin to look like corridors
-		// as they grow.)  When a wall is torn down, the room codes on one side are
-		// converted to match those on the other side, so all the cells in a room
-		// have the same code.  Note that if the room codes on both sides of a
-		// wall already have the same code, then tearing down that wall would 
-		// create a loop, so the wall is left in place.
-		if (row % 2 == 1 && states[row][col-1] != states[row][col+1]) {
-			// row is odd; wall separates rooms horizontally
-			fill(states, row, col-1, states[row][col-1], states[row][col+1]);
-			states[row][col] = states[row][col+1];
-		}
-		else if (row % 2 == 0 && states[row-1][col] != states[row+1][col]) {
-			// row is even; wall separates rooms vertically
-			fill(states, row-1, col, states[row-1][col], states[row+1][col]);
-			states[row][col] = states[row+1][col];
-		}
-	}
-
-	// Joins "rooms" that were previously separate, once a wall is torn down
-	private void fill (int[][] states, int row, int col, int replace, int replaceWith) {
-		// called by tearDown() to change "room codes"
-		if (states[row][col] == replace) {
-			states[row][col] = replaceWith;
-			fill(states, row+1, col, replace, replaceWith);
-			fill(states, row-1, col, replace, replaceWith);
-			fill(states, row, col+1, replace, replaceWith);
-			fill(states, row, col-1, replace, replaceWith);
-		}
-	}
 }
@@ -0,0 +1,211 @@
+package maze.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+
+/**
+ * This class represents the halls of a maze as a graph in compressed sparse row (CSR)
+ * form, ready to hand to other graph tools: every spot is a node, numbered row * columns +
+ * column, and the neighbors of node n are targets[offsets[n]] up to targets[offsets[n + 1]],
+ * in increasing order. Walls are nodes with no neighbors. Each hall joins its open
+ * neighbors in both directions, so every edge appears twice.
+ *
+ * The graph is built in one pass over the maze, in parallel bands of BAND_ROWS rows: each
+ * band reads its rows once, writes its spots' offsets within the band and collects its
+ * targets, then the bands' targets are laid end to end and their offsets shifted to match.
+ * A snapshot, it does not change if the maze does.
+ *
+ * The graph can also be written as a binary edge list: a header (MAGIC, rows, columns,
+ * number of edges as a long) followed by each edge once, as a pair of ints with the
+ * smaller node first, in increasing order.
+ *
+ * @author Wei Wu
+ */
+public class MazeGraph {
+    public static final int MAGIC = 0x4D5A454C;
+    // rows of the maze read by each task while building
+    public static final int BAND_ROWS = 64;
+    private static final int NUM_DIRECTIONS = Direction.values().length;
+
+    private final int myNumRows;
+    private final int myNumColumns;
+    private final int[] myOffsets;
+    private final int[] myTargets;
+
+
+    // Create a graph from its arrays
+    private MazeGraph (int rows, int columns, int[] offsets, int[] targets) {
+        myNumRows = rows;
+        myNumColumns = columns;
+        myOffsets = offsets;
+        myTargets = targets;
+    }
+
+    /**
+     * Returns graph of the halls of the given maze as they are now.
+     */
+    public static MazeGraph of (Maze maze) {
+        int rows = maze.getNumRows();
+        int columns = maze.getNumColumns();
+        int[] offsets = new int[Maze.getIntSize(rows, columns, "Maze graph") + 1];
+        int numBands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+        int[][] bands = IntStream.range(0, numBands).parallel()
+                .mapToObj(b -> buildBand(maze, b, offsets))
+                .toArray(int[][]::new);
+
+        // each band's targets start after those of every band above it
+        long[] starts = new long[numBands + 1];
+        for (int b = 0; b < numBands; b += 1) {
+            starts[b + 1] = starts[b] + bands[b].length;
+        }
+        if (starts[numBands] > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format("Maze graph numbers moves with an int, so it cannot handle "
+                    + "a %d x %d maze (%d moves)", rows, columns, starts[numBands]));
+        }
+        int[] targets = new int[(int)starts[numBands]];
+        IntStream.range(0, numBands).parallel().forEach(b -> {
+            int start = (int)starts[b];
+            for (int k = b * BAND_ROWS * columns; k < Math.min(rows, (b + 1) * BAND_ROWS) * columns; k += 1) {
+                offsets[k] += start;
+            }
+            System.arraycopy(bands[b], 0, targets, start, bands[b].length);
+        });
+        offsets[rows * columns] = targets.length;
+        return new MazeGraph(rows, columns, offsets, targets);
+    }
+
+    /**
+     * Returns number of nodes, one for every spot in the maze.
+     */
+    public int getNumNodes () {
+        return myOffsets.length - 1;
+    }
+
+    /**
+     * Returns number of edges, each counted once although it appears in both directions.
+     */
+    public int getNumEdges () {
+        return myTargets.length / 2;
+    }
+
+    /**
+     * Returns node for the spot at the given point.
+     */
+    public int indexOf (int x, int y) {
+        return x * myNumColumns + y;
+    }
+
+    /**
+     * Returns number of neighbors of the given node.
+     */
+    public int getDegree (int node) {
+        return myOffsets[node + 1] - myOffsets[node];
+    }
+
+    /**
+     * Returns where each node's neighbors start in the targets, plus a last entry for where they
+     * end; this is the graph's own array, not a copy, so it must not be changed.
+     */
+    public int[] getOffsets () {
+        return myOffsets;
+    }
+
+    /**
+     * Returns every node's neighbors, one node after another; this is the graph's own array,
+     * not a copy, so it must not be changed.
+     */
+    public int[] getTargets () {
+        return myTargets;
+    }
+
+    /**
+     * Returns number of bytes held by the graph's arrays.
+     */
+    public long getNumBytes () {
+        return (long)(myOffsets.length + myTargets.length) * Integer.BYTES;
+    }
+
+    /**
+     * Write the graph as a binary edge list to the given output, which is left open.
+     */
+    public void writeEdgeList (OutputStream out) {
+        try {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(MAGIC);
+            data.writeInt(myNumRows);
+            data.writeInt(myNumColumns);
+            data.writeLong(getNumEdges());
+            for (int node = 0; node < getNumNodes(); node += 1) {
+                for (int k = myOffsets[node]; k < myOffsets[node + 1]; k += 1) {
+                    if (myTargets[k] > node) {
+                        data.writeInt(node);
+                        data.writeInt(myTargets[k]);
+                    }
+                }
+            }
+            data.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Read the given band's rows once, writing each spot's offset within the band and
+    // returning the band's targets
+    private static int[] buildBand (Maze maze, int band, int[] offsets) {
+        int columns = maze.getNumColumns();
+        int first = band * BAND_ROWS;
+        int last = Math.min(maze.getNumRows(), first + BAND_ROWS);
+        // about two neighbors for every spot, grown if need be
+        int[] targets = new int[(int)Math.min(2L * (last - first) * columns, Integer.MAX_VALUE - NUM_DIRECTIONS)];
+        int size = 0;
+        boolean[] above = openSpots(maze, first - 1);
+        boolean[] here = openSpots(maze, first);
+        for (int r = first; r < last; r += 1) {
+            boolean[] below = openSpots(maze, r + 1);
+            for (int c = 0; c < columns; c += 1) {
+                int node = r * columns + c;
+                offsets[node] = size;
+                if (! here[c]) {
+                    continue;
+                }
+                if (targets.length - size < NUM_DIRECTIONS) {
+                    targets = Arrays.copyOf(targets, Math.max(2 * targets.length, size + NUM_DIRECTIONS));
+                }
+                // neighbors in increasing order: north, west, east, south
+                if (above[c]) {
+                    targets[size++] = node - columns;
+                }
+                if (c > 0 && here[c - 1]) {
+                    targets[size++] = node - 1;
+                }
+                if (c + 1 < columns && here[c + 1]) {
+                    targets[size++] = node + 1;
+                }
+                if (below[c]) {
+                    targets[size++] = node + columns;
+                }
+            }
+            above = here;
+            here = below;
+        }
+        return Arrays.copyOf(targets, size);
+    }
+
+    // Returns which spots in the given row are not walls; rows outside the maze are all walls
+    private static boolean[] openSpots (Maze maze, int row) {
+        boolean[] open = new boolean[maze.getNumColumns()];
+        if (0 <= row && row < maze.getNumRows()) {
+            for (int c = 0; c < open.length; c += 1) {
+                open[c] = maze.getState(row, c) != Spot.WALL;
+            }
+        }
+        return open;
+    }
+}
@@ -0,0 +1,25 @@
+package maze.model;
+
+
+/**
+ * This interface represents something that wants to know whenever a maze's spots change,
+ * such as a recorder keeping a trace of a search.
+ *
+ * A listener is called from whichever thread changed the maze, but never by two threads
+ * at once: the maze tells its listeners about one change at a time, even while a parallel
+ * search is changing it, so a listener need not be thread-safe to be attached.
+ *
+ * @author Wei Wu
+ */
+public interface MazeListener {
+    /**
+     * Called after the state of the maze's spot at the given point changes.
+     */
+    void stateChanged (int x, int y, int oldState, int newState);
+
+    /**
+     * Called after every mark is erased from the maze at once; by default nothing happens.
+     */
+    default void marksCleared () {
+    }
+}
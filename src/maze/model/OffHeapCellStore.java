@@ -0,0 +1,146 @@
+package maze.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * This class stores the state of every spot in a maze outside the Java heap, either in
+ * native memory or in a file mapped into memory, so that even a maze of billions of
+ * spots adds nothing for the garbage collector to scan or copy.
+ *
+ * Storage is split into chunks of at most CHUNK_SIZE bytes, since a single buffer
+ * cannot hold more than 2GB. The store lives until it is closed: closing it flushes a
+ * mapped file and drops its chunks, so any further use of the store, even by another
+ * thread, is an IllegalStateException rather than a read of freed memory. Buffers cannot
+ * be freed safely by any standard API before the Foreign Memory API, so the native memory
+ * (or the mapping) is returned once the garbage collector finds the dropped chunks
+ * unreachable. Marks are stamped with
+ * an epoch that is not saved (see {@link EpochCellStore}), so only walls and halls are
+ * meant to be kept in a mapped file.
+ *
+ * @author Wei Wu
+ */
+public class OffHeapCellStore extends EpochCellStore {
+    // bytes in each chunk of storage (a power of two, so indices split with shifts and masks)
+    public static final int CHUNK_BITS = 30;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    // block of walls (a wall is stored as a zero byte) copied over a chunk at a time
+    private static final byte[] WALLS = new byte[1 << 16];
+
+    private final long mySize;
+    // null once closed; volatile so other threads see that at once
+    private volatile ByteBuffer[] myChunks;
+
+
+    // Create a store backed by the given chunks
+    private OffHeapCellStore (long size, ByteBuffer[] chunks) {
+        mySize = size;
+        myChunks = chunks;
+    }
+
+    /**
+     * Returns a store in native memory for the given number of spots, every one a wall.
+     */
+    public static OffHeapCellStore allocate (long size) {
+        ByteBuffer[] chunks = new ByteBuffer[numChunks(size)];
+        for (int k = 0; k < chunks.length; k += 1) {
+            chunks[k] = ByteBuffer.allocateDirect(chunkLength(size, k));
+        }
+        return new OffHeapCellStore(size, chunks);
+    }
+
+    /**
+     * Returns a store for the given number of spots kept in the given file, which is created
+     * if necessary. A new file starts with every spot a wall; an existing one keeps its states,
+     * so a maze saved this way can be reopened later with Maze.attach().
+     */
+    public static OffHeapCellStore map (Path file, long size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer[] chunks = new ByteBuffer[numChunks(size)];
+            for (int k = 0; k < chunks.length; k += 1) {
+                chunks[k] = channel.map(FileChannel.MapMode.READ_WRITE, (long)k << CHUNK_BITS, chunkLength(size, k));
+            }
+            return new OffHeapCellStore(size, chunks);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @see CellStore#size()
+     */
+    @Override
+    public long size () {
+        return mySize;
+    }
+
+    /**
+     * @see CellStore#fillWalls()
+     */
+    @Override
+    public void fillWalls () {
+        for (long k = 0; k < mySize; k += CHUNK_SIZE) {
+            ByteBuffer chunk = chunkOf(k);
+            for (int offset = 0; offset < chunk.capacity(); offset += WALLS.length) {
+                chunk.put(offset, WALLS, 0, Math.min(WALLS.length, chunk.capacity() - offset));
+            }
+        }
+    }
+
+    /**
+     * @see EpochCellStore#getByte(long)
+     */
+    @Override
+    protected int getByte (long index) {
+        return chunkOf(index).get((int)(index & (CHUNK_SIZE - 1)));
+    }
+
+    /**
+     * @see EpochCellStore#setByte(long, int)
+     */
+    @Override
+    protected void setByte (long index, int value) {
+        chunkOf(index).put((int)(index & (CHUNK_SIZE - 1)), (byte)value);
+    }
+
+    /**
+     * Write any changes back to the file (if mapped) and let go of this store's memory,
+     * which is freed once the garbage collector gets to it.
+     */
+    @Override
+    public void close () {
+        ByteBuffer[] chunks = myChunks;
+        if (chunks != null) {
+            myChunks = null;
+            for (ByteBuffer chunk : chunks) {
+                if (chunk instanceof MappedByteBuffer mapped) {
+                    mapped.force();
+                }
+            }
+        }
+    }
+
+    private ByteBuffer chunkOf (long index) {
+        ByteBuffer[] chunks = myChunks;
+        if (chunks == null) {
+            throw new IllegalStateException("maze storage has already been closed");
+        }
+        return chunks[(int)(index >>> CHUNK_BITS)];
+    }
+
+    private static int numChunks (long size) {
+        return (int)((size + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+    }
+
+    private static int chunkLength (long size, int chunk) {
+        return (int)Math.min(CHUNK_SIZE, size - ((long)chunk << CHUNK_BITS));
+    }
+}
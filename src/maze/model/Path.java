@@ -0,0 +1,378 @@
+package maze.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * This class represents a path through a maze as the spot it starts from followed
+ * by the direction of each move, two bits per move, thirty-two moves to a word, so
+ * a path through a million spots takes about 250 KB.
+ *
+ * Paths grow by appending moves. They can be walked move by move, spot by spot, or
+ * run by run (a run being as many moves as possible in the same direction), and can be
+ * written either packed or run-length encoded, which is much smaller for mazes of
+ * long straight corridors.
+ *
+ * @author Wei Wu
+ */
+public class Path implements Iterable<Direction> {
+    private static final int BITS_PER_MOVE = 2;
+    private static final int MOVES_PER_WORD = Long.SIZE / BITS_PER_MOVE;
+    private static final int INITIAL_WORDS = 4;
+
+    private final int myStartX;
+    private final int myStartY;
+    private int myEndX;
+    private int myEndY;
+    private long[] myMoves;
+    private int myLength;
+
+
+    /**
+     * Create a path of no moves starting at the given point.
+     */
+    public Path (int startX, int startY) {
+        myStartX = startX;
+        myStartY = startY;
+        myEndX = startX;
+        myEndY = startY;
+        myMoves = new long[INITIAL_WORDS];
+    }
+
+    /**
+     * Returns path through the given spots, each of which must neighbor the one before it.
+     */
+    public static Path of (List<Spot> spots) {
+        // simple error checking, we will see better ways in the future
+        assert(! spots.isEmpty());
+        Path path = new Path(spots.get(0).getX(), spots.get(0).getY());
+        for (int k = 1; k < spots.size(); k += 1) {
+            path.append(Direction.between(spots.get(k - 1), spots.get(k)));
+        }
+        return path;
+    }
+
+    /**
+     * Add a move in the given direction to the end of the path.
+     */
+    public void append (Direction direction) {
+        if (myLength == (long)myMoves.length * MOVES_PER_WORD) {
+            myMoves = Arrays.copyOf(myMoves, myMoves.length * 2);
+        }
+        myMoves[myLength / MOVES_PER_WORD] |= (long)direction.ordinal() << shiftOf(myLength);
+        myLength += 1;
+        myEndX += direction.getDX();
+        myEndY += direction.getDY();
+    }
+
+    /**
+     * Add the given number of moves in the given direction to the end of the path.
+     */
+    public void append (Direction direction, int count) {
+        for (int k = 0; k < count; k += 1) {
+            append(direction);
+        }
+    }
+
+    /**
+     * Returns number of moves in the path, one less than the number of spots it visits.
+     */
+    public int length () {
+        return myLength;
+    }
+
+    /**
+     * Returns row of the spot the path starts from.
+     */
+    public int getStartX () {
+        return myStartX;
+    }
+
+    /**
+     * Returns column of the spot the path starts from.
+     */
+    public int getStartY () {
+        return myStartY;
+    }
+
+    /**
+     * Returns row of the spot the path ends at.
+     */
+    public int getEndX () {
+        return myEndX;
+    }
+
+    /**
+     * Returns column of the spot the path ends at.
+     */
+    public int getEndY () {
+        return myEndY;
+    }
+
+    /**
+     * Returns direction of the given move.
+     */
+    public Direction getMove (int index) {
+        // simple error checking, we will see better ways in the future
+        assert(0 <= index && index < myLength);
+        return Direction.fromCode((int)(myMoves[index / MOVES_PER_WORD] >>> shiftOf(index)));
+    }
+
+    /**
+     * Copy the direction codes (ordinals) of the given number of moves, starting with the
+     * given move, into the given array starting at the given offset.
+     */
+    public void copyMoves (int from, byte[] destination, int offset, int count) {
+        // simple error checking, we will see better ways in the future
+        assert(0 <= from && from + count <= myLength);
+        for (int k = 0; k < count; k += 1) {
+            int index = from + k;
+            destination[offset + k] = (byte)((myMoves[index / MOVES_PER_WORD] >>> shiftOf(index)) & 3);
+        }
+    }
+
+    /**
+     * Returns the packed words holding the path's moves, thirty-two to a word starting
+     * from the lowest bits; only the first length() moves are meaningful.
+     */
+    public long[] toWords () {
+        return Arrays.copyOf(myMoves, wordsFor(myLength));
+    }
+
+    /**
+     * Returns an iterator over the direction of each move.
+     */
+    @Override
+    public Iterator<Direction> iterator () {
+        return new Iterator<>() {
+            private int myIndex;
+
+            @Override
+            public boolean hasNext () {
+                return myIndex < myLength;
+            }
+
+            @Override
+            public Direction next () {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getMove(myIndex++);
+            }
+        };
+    }
+
+    /**
+     * Returns the spots the path visits in the given maze, from start to end, made only as they are needed.
+     */
+    public Iterable<Spot> spots (Maze maze) {
+        return () -> new Iterator<>() {
+            private int myIndex = -1;
+            private int myX = myStartX;
+            private int myY = myStartY;
+
+            @Override
+            public boolean hasNext () {
+                return myIndex < myLength;
+            }
+
+            @Override
+            public Spot next () {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (myIndex >= 0) {
+                    Direction d = getMove(myIndex);
+                    myX += d.getDX();
+                    myY += d.getDY();
+                }
+                myIndex += 1;
+                return maze.getSpot(myX, myY);
+            }
+        };
+    }
+
+    /**
+     * Returns the spots the path visits in the given maze, from start to end.
+     */
+    public List<Spot> toSpots (Maze maze) {
+        List<Spot> spots = new ArrayList<>(myLength + 1);
+        for (Spot spot : spots(maze)) {
+            spots.add(spot);
+        }
+        return spots;
+    }
+
+    /**
+     * Mark every spot the path visits in the given maze as part of the path.
+     */
+    public void mark (Maze maze) {
+        for (Spot spot : spots(maze)) {
+            spot.markAsPath();
+        }
+    }
+
+    /**
+     * Returns an iterator over the path's runs of moves in the same direction.
+     */
+    public Iterable<Run> runs () {
+        return () -> new Iterator<>() {
+            private int myIndex;
+
+            @Override
+            public boolean hasNext () {
+                return myIndex < myLength;
+            }
+
+            @Override
+            public Run next () {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Direction direction = getMove(myIndex);
+                int start = myIndex;
+                while (myIndex < myLength && getMove(myIndex) == direction) {
+                    myIndex += 1;
+                }
+                return new Run(direction, myIndex - start);
+            }
+        };
+    }
+
+    /**
+     * Returns number of runs of moves in the same direction.
+     */
+    public int getNumRuns () {
+        int count = 0;
+        for (int k = 0; k < myLength; k += 1) {
+            if (k == 0 || getMove(k) != getMove(k - 1)) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write the path to the given output with its moves packed two bits each.
+     */
+    public void write (DataOutput out) throws IOException {
+        out.writeInt(myStartX);
+        out.writeInt(myStartY);
+        out.writeInt(myLength);
+        for (int w = 0; w < wordsFor(myLength); w += 1) {
+            out.writeLong(myMoves[w]);
+        }
+    }
+
+    /**
+     * Returns path read from the given input, as written by write().
+     */
+    public static Path read (DataInput in) throws IOException {
+        Path path = new Path(in.readInt(), in.readInt());
+        int length = in.readInt();
+        long[] moves = new long[Math.max(INITIAL_WORDS, wordsFor(length))];
+        for (int w = 0; w < wordsFor(length); w += 1) {
+            moves[w] = in.readLong();
+        }
+        path.myMoves = moves;
+        path.myLength = length;
+        for (int k = 0; k < length; k += 1) {
+            Direction d = path.getMove(k);
+            path.myEndX += d.getDX();
+            path.myEndY += d.getDY();
+        }
+        return path;
+    }
+
+    /**
+     * Write the path to the given output run-length encoded: each run is one variable-length
+     * number holding its length less one above its direction, so most runs take one byte.
+     */
+    public void writeRunLength (DataOutput out) throws IOException {
+        out.writeInt(myStartX);
+        out.writeInt(myStartY);
+        out.writeInt(getNumRuns());
+        for (Run run : runs()) {
+            writeVarInt(out, ((long)(run.length() - 1) << BITS_PER_MOVE) | run.direction().ordinal());
+        }
+    }
+
+    /**
+     * Returns path read from the given input, as written by writeRunLength().
+     */
+    public static Path readRunLength (DataInput in) throws IOException {
+        Path path = new Path(in.readInt(), in.readInt());
+        int numRuns = in.readInt();
+        for (int k = 0; k < numRuns; k += 1) {
+            long code = readVarInt(in);
+            path.append(Direction.fromCode((int)code), (int)(code >>> BITS_PER_MOVE) + 1);
+        }
+        return path;
+    }
+
+    @Override
+    public boolean equals (Object other) {
+        if (! (other instanceof Path path)) {
+            return false;
+        }
+        return myStartX == path.myStartX && myStartY == path.myStartY && myLength == path.myLength
+                && Arrays.equals(myMoves, 0, wordsFor(myLength), path.myMoves, 0, wordsFor(myLength));
+    }
+
+    @Override
+    public int hashCode () {
+        return 31 * (31 * myStartX + myStartY) + Arrays.hashCode(toWords());
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        StringBuilder result = new StringBuilder("(" + myStartX + ", " + myStartY + ")");
+        for (Run run : runs()) {
+            result.append(' ').append(run.direction().name().charAt(0)).append(run.length());
+        }
+        return result.toString();
+    }
+
+    private static int shiftOf (int index) {
+        return (index % MOVES_PER_WORD) * BITS_PER_MOVE;
+    }
+
+    private static int wordsFor (int length) {
+        return (length + MOVES_PER_WORD - 1) / MOVES_PER_WORD;
+    }
+
+    private static void writeVarInt (DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)(value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+
+    private static long readVarInt (DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+
+    /**
+     * As many moves as possible in the same direction.
+     */
+    public record Run(Direction direction, int length) {}
+}
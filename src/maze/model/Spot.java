@@ -11,6 +11,9 @@ import java.util.Objects;
  * If it is a hall, it may be empty (undiscovered), visited (discovered and
  * abandoned) or path (discovered and actively being explored).
  *
+ * A spot taken from a maze is only a view of one of the maze's spots: its state is
+ * kept in the maze's storage, so any two views of the same spot always agree.
+ *
  * @author Robert C. Duvall
  * @author Shannon Pollard
  */
@@ -28,6 +31,8 @@ public class Spot implements Comparable<Spot> {
     private final int myX;
     private final int myY;
     private final int myDistance;
+    // maze that holds this Spot's state, or null if the Spot holds its own
+    private final Maze myMaze;
     private int myState;
 
 
@@ -39,6 +44,17 @@ public class Spot implements Comparable<Spot> {
         myY = y;
         myDistance = distance;
         myState = state;
+        myMaze = null;
+    }
+
+    /**
+     * Create a view of the given maze's Spot at the given coordinates.
+     */
+    Spot (Maze maze, int x, int y, int distance) {
+        myX = x;
+        myY = y;
+        myDistance = distance;
+        myMaze = maze;
     }
 
     /**
@@ -74,15 +90,15 @@ public class Spot implements Comparable<Spot> {
      * Returns this Spot's state.
      */
     public int getState () {
-        return myState;
+        return (myMaze == null) ? myState : myMaze.getState(myX, myY);
     }
 
     /**
      * Turns this Spot into a "path" Spot, only if it is not a wall.
      */
     public void markAsPath () {
-        if (myState != WALL) {
-            myState = PATH;
+        if (getState() != WALL) {
+            setState(PATH);
         }
     }
 
@@ -90,8 +106,8 @@ public class Spot implements Comparable<Spot> {
      * Turns this Spot into a "visited" Spot, only if it is not a wall.
      */
     public void markAsVisited () {
-        if (myState != WALL) {
-            myState = VISITED;
+        if (getState() != WALL) {
+            setState(VISITED);
         }
     }
 
@@ -99,8 +115,30 @@ public class Spot implements Comparable<Spot> {
      * Turns this Spot into an "empty" Spot, only if it is not a wall.
      */
     public void markAsEmpty () {
-        if (myState != WALL) {
-            myState = EMPTY;
+        if (getState() != WALL) {
+            setState(EMPTY);
+        }
+    }
+
+    /**
+     * Turns this Spot into a wall or, if it was a wall, into an "empty" Spot; the
+     * maze's outer walls cannot be changed.
+     */
+    public void setWall (boolean isWall) {
+        if (myMaze != null) {
+            myMaze.setWall(myX, myY, isWall);
+        }
+        else if ((myState == WALL) != isWall) {
+            myState = isWall ? WALL : EMPTY;
+        }
+    }
+
+    private void setState (int state) {
+        if (myMaze == null) {
+            myState = state;
+        }
+        else {
+            myMaze.setState(myX, myY, state);
         }
     }
 
@@ -109,7 +147,7 @@ public class Spot implements Comparable<Spot> {
      */
     @Override
     public String toString () {
-        String state = switch (myState) {
+        String state = switch (getState()) {
             case 0 -> "WALL";
             case 1 -> "PATH";
             case 2 -> "EMPTY";
@@ -121,6 +159,7 @@ public class Spot implements Comparable<Spot> {
 
     /*
      * Remaining code was generated by IntelliJ so this class can be used in collections (like Lists and Maps).
+     * Only the coordinates are compared, since the state changes while a Spot sits in a collection.
      */
     /**
      * @see Object#equals(Object)
@@ -130,7 +169,7 @@ public class Spot implements Comparable<Spot> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Spot spot = (Spot) o;
-        return myX == spot.myX && myY == spot.myY && myDistance == spot.myDistance && myState == spot.myState;
+        return myX == spot.myX && myY == spot.myY;
     }
 
     /**
@@ -138,6 +177,6 @@ public class Spot implements Comparable<Spot> {
      */
     @Override
     public int hashCode () {
-        return Objects.hash(myX, myY, myDistance, myState);
+        return Objects.hash(myX, myY);
     }
 }
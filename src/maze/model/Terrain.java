@@ -0,0 +1,130 @@
+package maze.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * This class represents the cost of moving into each spot of a maze, such as the
+ * difference between crossing open ground and wading through a swamp.
+ *
+ * Costs are whole numbers from 1 to MAX_COST, stored in one byte per spot in row-major order.
+ *
+ * @author Wei Wu
+ */
+public class Terrain {
+    public static final int MIN_COST = 1;
+    public static final int MAX_COST = 255;
+    // spacing of the random control points that generated terrain is smoothed between
+    public static final int FEATURE_SIZE = 8;
+
+    private final int myNumRows;
+    private final int myNumColumns;
+    private final byte[] myCosts;
+
+
+    /**
+     * Create terrain of the given size where every spot costs MIN_COST to enter.
+     */
+    public Terrain (int rows, int columns) {
+        myNumRows = rows;
+        myNumColumns = columns;
+        myCosts = new byte[Maze.getIntSize(rows, columns, "Terrain")];
+        Arrays.fill(myCosts, (byte)MIN_COST);
+    }
+
+    /**
+     * Returns random, smoothly varying terrain of the given size, with costs up to the given maximum,
+     * that is always the same for the same seed.
+     */
+    public static Terrain random (int rows, int columns, int maxCost, long seed) {
+        // simple error checking, we will see better ways in the future
+        assert(MIN_COST <= maxCost && maxCost <= MAX_COST);
+        Random random = new Random(seed);
+        int controlRows = rows / FEATURE_SIZE + 2;
+        int controlColumns = columns / FEATURE_SIZE + 2;
+        double[][] control = new double[controlRows][controlColumns];
+        for (double[] row : control) {
+            for (int c = 0; c < controlColumns; c += 1) {
+                row[c] = random.nextDouble();
+            }
+        }
+        // interpolate between the four control points surrounding each spot
+        Terrain terrain = new Terrain(rows, columns);
+        for (int r = 0; r < rows; r += 1) {
+            int cr = r / FEATURE_SIZE;
+            double fr = (r % FEATURE_SIZE) / (double)FEATURE_SIZE;
+            for (int c = 0; c < columns; c += 1) {
+                int cc = c / FEATURE_SIZE;
+                double fc = (c % FEATURE_SIZE) / (double)FEATURE_SIZE;
+                double top = control[cr][cc] * (1 - fc) + control[cr][cc + 1] * fc;
+                double bottom = control[cr + 1][cc] * (1 - fc) + control[cr + 1][cc + 1] * fc;
+                double height = top * (1 - fr) + bottom * fr;
+                terrain.setCost(r, c, MIN_COST + (int)(height * (maxCost - MIN_COST + 1)));
+            }
+        }
+        return terrain;
+    }
+
+    /**
+     * Returns terrain read from the given file, as written by save().
+     */
+    public static Terrain load (Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream input = new DataInputStream(stream);
+            Terrain terrain = new Terrain(input.readInt(), input.readInt());
+            input.readFully(terrain.myCosts);
+            return terrain;
+        }
+    }
+
+    /**
+     * Write this terrain to the given file: its number of rows and columns, then one byte per spot.
+     */
+    public void save (Path file) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            DataOutputStream output = new DataOutputStream(stream);
+            output.writeInt(myNumRows);
+            output.writeInt(myNumColumns);
+            output.write(myCosts);
+            output.flush();
+        }
+    }
+
+    /**
+     * Returns number of rows of spots this terrain covers.
+     */
+    public int getNumRows () {
+        return myNumRows;
+    }
+
+    /**
+     * Returns number of columns of spots this terrain covers.
+     */
+    public int getNumColumns () {
+        return myNumColumns;
+    }
+
+    /**
+     * Returns cost of moving into the spot at the given point.
+     */
+    public int getCost (int x, int y) {
+        return myCosts[x * myNumColumns + y] & 0xFF;
+    }
+
+    /**
+     * Replaces cost of moving into the spot at the given point.
+     */
+    public void setCost (int x, int y, int cost) {
+        // simple error checking, we will see better ways in the future
+        assert(MIN_COST <= cost && cost <= MAX_COST);
+        myCosts[x * myNumColumns + y] = (byte)Math.min(MAX_COST, Math.max(MIN_COST, cost));
+    }
+}
@@ -0,0 +1,18 @@
+package maze.pipeline;
+
+
+/**
+ * This record describes one maze for a {@link MazePipeline} to generate and solve: its
+ * size and the seed that decides its walls, plus an id to tell its result apart.
+ *
+ * @author Wei Wu
+ */
+public record Job(long id, int rows, int columns, long seed) {
+    /**
+     * Create a job, checking the maze has room for a start and a goal.
+     */
+    public Job {
+        // simple error checking, we will see better ways in the future
+        assert(rows >= 3 && columns >= 3);
+    }
+}
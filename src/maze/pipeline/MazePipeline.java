@@ -0,0 +1,253 @@
+package maze.pipeline;
+
+import maze.generators.MazeGenerator;
+import maze.model.Maze;
+import maze.solvers.SearchAlgorithm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+
+/**
+ * This class generates, solves and writes out a stream of mazes in three stages, each with
+ * its own workers, connected by bounded queues:
+ *
+ *   generate -> solve -> serialize
+ *
+ * Only a fixed number of jobs are ever in flight: each one is carried by a piece of work
+ * that, once its result is written, goes back to be used for another job, keeping its
+ * maze, search and buffer. So the mazes are allocated once and only regenerated from each
+ * job's seed, searches that can be restarted (see SearchAlgorithm.restart()) are set up
+ * once per maze rather than once per job, and when any stage falls behind, new jobs wait
+ * rather than pile up in memory.
+ *
+ * Each result is written as the job's id and seed, the solver's number of steps, whether
+ * a path was found and, if so, the path (see {@link maze.model.Path#write}); results
+ * come out in whatever order they finish.
+ *
+ * @author Wei Wu
+ */
+public class MazePipeline implements AutoCloseable {
+    public static final int DEFAULT_IN_FLIGHT = 256;
+    public static final long MAX_STEPS = 1L << 32;
+
+    private final MazeGenerator myGenerator;
+    private final Function<Maze, SearchAlgorithm> mySolver;
+    private final OutputStream myOut;
+    private final Stage myGenerate;
+    private final Stage mySolve;
+    private final Stage mySerialize;
+    // work not carrying any job at the moment
+    private final BlockingQueue<Work> myIdle;
+    // first thing that went wrong in any stage
+    private final AtomicReference<RuntimeException> myFailure;
+
+
+    /**
+     * Create a pipeline with one worker per stage and DEFAULT_IN_FLIGHT jobs in flight.
+     */
+    public MazePipeline (MazeGenerator generator, Function<Maze, SearchAlgorithm> solver, OutputStream out) {
+        this(generator, solver, out, 1, DEFAULT_IN_FLIGHT);
+    }
+
+    /**
+     * Create a pipeline that carves mazes with the given generator, solves them with solvers
+     * made by the given function, and writes the results to the given output, with the given
+     * number of workers in each stage and never more than the given number of jobs in flight.
+     */
+    public MazePipeline (MazeGenerator generator, Function<Maze, SearchAlgorithm> solver, OutputStream out,
+                         int workersPerStage, int inFlight) {
+        // simple error checking, we will see better ways in the future
+        assert(workersPerStage > 0 && inFlight > 0);
+        myGenerator = generator;
+        mySolver = solver;
+        myOut = out;
+        myGenerate = new Stage("generate", workersPerStage, inFlight + workersPerStage);
+        mySolve = new Stage("solve", workersPerStage, inFlight + workersPerStage);
+        mySerialize = new Stage("serialize", workersPerStage, inFlight + workersPerStage);
+        myIdle = new ArrayBlockingQueue<>(inFlight);
+        for (int k = 0; k < inFlight; k += 1) {
+            myIdle.add(new Work());
+        }
+        myFailure = new AtomicReference<>();
+    }
+
+    /**
+     * Returns the pipeline's stages, in order.
+     */
+    public List<Stage> getStages () {
+        return List.of(myGenerate, mySolve, mySerialize);
+    }
+
+    /**
+     * Run every given job through the pipeline, returning once all their results are written.
+     * @return number of jobs run
+     */
+    public long process (Stream<Job> jobs) {
+        List<Thread> generators = start(myGenerate, this::generate, mySolve);
+        List<Thread> solvers = start(mySolve, this::solve, mySerialize);
+        List<Thread> serializers = start(mySerialize, this::serialize, null);
+        long count = 0;
+        try {
+            Iterator<Job> pending = jobs.iterator();
+            while (pending.hasNext()) {
+                Work work = myIdle.take();
+                work.myJob = pending.next();
+                work.isFailed = false;
+                myGenerate.put(work);
+                count += 1;
+            }
+            // stop each stage once everything ahead of it has gone through
+            stop(myGenerate, generators);
+            stop(mySolve, solvers);
+            stop(mySerialize, serializers);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while feeding the pipeline", e);
+        }
+        if (myFailure.get() != null) {
+            throw myFailure.get();
+        }
+        return count;
+    }
+
+    /**
+     * Release the mazes kept for reuse.
+     */
+    @Override
+    public void close () {
+        for (Work work : myIdle) {
+            if (work.myMaze != null) {
+                work.myMaze.close();
+                work.myMaze = null;
+            }
+        }
+    }
+
+    // Carve the job's maze, reusing the work's maze if it is the right size
+    private void generate (Work work) {
+        Job job = work.myJob;
+        Maze maze = work.myMaze;
+        if (maze == null || maze.getNumRows() != job.rows() || maze.getNumColumns() != job.columns()) {
+            if (maze != null) {
+                maze.close();
+            }
+            work.myMaze = new Maze(job.rows(), job.columns(), myGenerator);
+            work.mySearch = null;
+        }
+        work.myMaze.createMaze(job.seed());
+    }
+
+    // Solve the job's maze, restarting the search last run on it if there is one
+    private void solve (Work work) {
+        SearchAlgorithm search = work.mySearch;
+        if (search != null) {
+            search.restart();
+        }
+        else {
+            search = mySolver.apply(work.myMaze);
+            if (search.canRestart()) {
+                work.mySearch = search;
+            }
+        }
+        long steps = 0;
+        while (! search.step() && steps < MAX_STEPS) {
+            steps += 1;
+        }
+        work.myNumSteps = search.getNumOfSteps();
+        work.myPath = search.getPath();
+        if (work.mySearch != null) {
+            // let go of the trail now, rather than keep it alive while the work waits for its next
+            // job, where every collection on the way would copy it again; the maze's next carving
+            // means the search is restarted once more before it is used
+            search.restart();
+        }
+    }
+
+    // Write the job's result to the output
+    private void serialize (Work work) {
+        try {
+            work.myBuffer.reset();
+            work.myOut.writeLong(work.myJob.id());
+            work.myOut.writeLong(work.myJob.seed());
+            work.myOut.writeInt(work.myNumSteps);
+            work.myOut.writeBoolean(work.myPath != null);
+            if (work.myPath != null) {
+                work.myPath.write(work.myOut);
+            }
+            synchronized (myOut) {
+                work.myBuffer.writeTo(myOut);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Start given stage's workers, each doing the given task to its work and passing it on to the next stage
+    private List<Thread> start (Stage stage, WorkTask task, Stage next) {
+        List<Thread> workers = new ArrayList<>();
+        for (int k = 0; k < stage.getNumWorkers(); k += 1) {
+            Thread worker = new Thread(() -> {
+                try {
+                    for (Work work = stage.take(); work != Work.STOP; work = stage.take()) {
+                        if (! work.isFailed) {
+                            long start = System.nanoTime();
+                            try {
+                                task.perform(work);
+                            }
+                            catch (RuntimeException e) {
+                                myFailure.compareAndSet(null, e);
+                                work.isFailed = true;
+                            }
+                            stage.finished(System.nanoTime() - start);
+                        }
+                        if (next == null) {
+                            work.myPath = null;
+                            myIdle.put(work);
+                        }
+                        else {
+                            next.put(work);
+                        }
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "maze-" + stage.getName() + "-" + k);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        return workers;
+    }
+
+    // Tell each of given stage's workers to stop, and wait until they have
+    private static void stop (Stage stage, List<Thread> workers) throws InterruptedException {
+        for (int k = 0; k < workers.size(); k += 1) {
+            stage.put(Work.STOP);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+
+    /**
+     * What one stage does to each job.
+     */
+    @FunctionalInterface
+    private interface WorkTask {
+        void perform (Work work);
+    }
+}
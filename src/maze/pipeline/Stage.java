@@ -0,0 +1,110 @@
+package maze.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+
+/**
+ * This class represents one stage of a {@link MazePipeline}: a bounded queue of work
+ * waiting for it and the counts needed to see how well it keeps up.
+ *
+ * @author Wei Wu
+ */
+public class Stage {
+    private final String myName;
+    private final int myNumWorkers;
+    private final BlockingQueue<Work> myQueue;
+    private final AtomicLong myNumProcessed;
+    private final AtomicLong myBusyNanos;
+    private final LongAccumulator myMaxDepth;
+
+
+    // Create a stage with the given name, number of workers, and room for work waiting
+    Stage (String name, int workers, int capacity) {
+        myName = name;
+        myNumWorkers = workers;
+        myQueue = new ArrayBlockingQueue<>(capacity);
+        myNumProcessed = new AtomicLong();
+        myBusyNanos = new AtomicLong();
+        myMaxDepth = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Returns name of the stage.
+     */
+    public String getName () {
+        return myName;
+    }
+
+    /**
+     * Returns number of workers in the stage.
+     */
+    public int getNumWorkers () {
+        return myNumWorkers;
+    }
+
+    /**
+     * Returns number of jobs the stage has finished.
+     */
+    public long getNumProcessed () {
+        return myNumProcessed.get();
+    }
+
+    /**
+     * Returns total time the stage's workers have spent working, rather than waiting.
+     */
+    public long getBusyNanos () {
+        return myBusyNanos.get();
+    }
+
+    /**
+     * Returns number of jobs waiting for the stage right now.
+     */
+    public int getQueueDepth () {
+        return myQueue.size();
+    }
+
+    /**
+     * Returns most jobs ever seen waiting for the stage.
+     */
+    public long getMaxQueueDepth () {
+        return myMaxDepth.get();
+    }
+
+    /**
+     * Returns jobs the stage finishes per second with all its workers busy: the jobs finished
+     * per second of work by one worker, times the number of workers.
+     */
+    public double getThroughput () {
+        long busy = getBusyNanos();
+        return (busy == 0) ? 0 : getNumProcessed() * 1e9 / busy * myNumWorkers;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return String.format("%-10s workers %d  jobs %d  %.0f jobs/s busy  queue %d (max %d)",
+                myName, myNumWorkers, getNumProcessed(), getThroughput(), getQueueDepth(), getMaxQueueDepth());
+    }
+
+    // Hand given work to this stage, waiting for room if its queue is full
+    void put (Work work) throws InterruptedException {
+        myQueue.put(work);
+        myMaxDepth.accumulate(myQueue.size());
+    }
+
+    // Wait for the next work for this stage
+    Work take () throws InterruptedException {
+        return myQueue.take();
+    }
+
+    // Count one job finished after the given time at work
+    void finished (long nanos) {
+        myNumProcessed.incrementAndGet();
+        myBusyNanos.addAndGet(nanos);
+    }
+}
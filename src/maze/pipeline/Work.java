@@ -0,0 +1,30 @@
+package maze.pipeline;
+
+import maze.model.Maze;
+import maze.model.Path;
+import maze.solvers.SearchAlgorithm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+
+
+/**
+ * This class carries one job through a {@link MazePipeline}, along with everything that
+ * is kept from one job to the next: its maze, the search last run on that maze (if it can
+ * be restarted), and the buffer its result is written into.
+ *
+ * @author Wei Wu
+ */
+class Work {
+    // work that tells a worker to stop
+    static final Work STOP = new Work();
+
+    Job myJob;
+    Maze myMaze;
+    SearchAlgorithm mySearch;
+    Path myPath;
+    int myNumSteps;
+    boolean isFailed;
+    final ByteArrayOutputStream myBuffer = new ByteArrayOutputStream();
+    final DataOutputStream myOut = new DataOutputStream(myBuffer);
+}
@@ -0,0 +1,392 @@
+package maze.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import maze.generators.AldousBroderGenerator;
+import maze.generators.BacktrackerGenerator;
+import maze.generators.BinaryTreeGenerator;
+import maze.generators.KruskalGenerator;
+import maze.generators.MazeGenerator;
+import maze.generators.PrimGenerator;
+import maze.generators.SidewinderGenerator;
+import maze.generators.WilsonGenerator;
+import maze.model.ArrayCellStore;
+import maze.model.Layout;
+import maze.model.Maze;
+import maze.model.Path;
+import maze.model.Spot;
+import maze.solvers.BFS;
+import maze.solvers.BitFlood;
+import maze.solvers.DFS;
+import maze.solvers.DeadEndFill;
+import maze.solvers.Dijkstra;
+import maze.solvers.Greedy;
+import maze.solvers.IDAStar;
+import maze.solvers.JumpPointSearch;
+import maze.solvers.SMAStar;
+import maze.solvers.SearchAlgorithm;
+import maze.solvers.Tremaux;
+import maze.solvers.WallFollower;
+import maze.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+
+/**
+ * This class serves maze generation and solving over HTTP on the loopback interface:
+ *
+ *   GET /generate?rows=31&amp;columns=41&amp;seed=7&amp;generator=kruskal  the maze, one line per row
+ *   GET /solve?rows=31&amp;columns=41&amp;seed=7&amp;generator=kruskal&amp;solver=bfs  the path found, as JSON
+ *   GET /stats  number of requests served and latency percentiles
+ *
+ * Every parameter is optional; a missing seed picks one at random, and the response says which.
+ *
+ * Each request is handled on its own virtual thread when the running Java has them, or
+ * on a pooled thread otherwise. Mazes are pooled by size and generator, along with every
+ * search already run on them, so a request usually just regenerates a maze whose storage
+ * is already allocated and restarts a search whose workspace is too (see
+ * SearchAlgorithm.restart()). A search gives up after STEPS_PER_SPOT steps for every spot
+ * in its maze, so no request can hold on to a thread for long.
+ *
+ * Answers are small and written in pieces, so the JDK's server should be told not to hold
+ * them back waiting for more (main() does this by setting NO_DELAY to true); since that
+ * property is read once for every server in the process, it is left for whoever starts the
+ * process to set, before the first server is made.
+ *
+ * @author Wei Wu
+ */
+public class SolveServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_ROWS = 31;
+    public static final int DEFAULT_COLUMNS = 41;
+    // largest maze that may be requested, and longest a solver may run for each of its spots
+    public static final int MAX_SPOTS = 1 << 22;
+    public static final int STEPS_PER_SPOT = 8;
+    // most idle mazes kept for each size and generator
+    public static final int MAX_POOLED = 256;
+    public static final int BACKLOG = 4096;
+    public static final String NO_DELAY = "sun.net.httpserver.nodelay";
+    // solvers and generators that can be asked for, by name
+    public static final Map<String, Function<Maze, SearchAlgorithm>> SOLVERS = new LinkedHashMap<>();
+    public static final Map<String, MazeGenerator> GENERATORS = new LinkedHashMap<>();
+    static {
+        SOLVERS.put("bfs", BFS::new);
+        SOLVERS.put("dfs", DFS::new);
+        SOLVERS.put("greedy", Greedy::new);
+        SOLVERS.put("dijkstra", Dijkstra::new);
+        SOLVERS.put("jps", JumpPointSearch::new);
+        SOLVERS.put("flood", maze -> new BitFlood(maze, false));
+        SOLVERS.put("wall", WallFollower::new);
+        SOLVERS.put("tremaux", Tremaux::new);
+        SOLVERS.put("deadends", DeadEndFill::new);
+        SOLVERS.put("idastar", IDAStar::new);
+        SOLVERS.put("smastar", SMAStar::new);
+        GENERATORS.put("kruskal", new KruskalGenerator());
+        GENERATORS.put("backtracker", new BacktrackerGenerator());
+        GENERATORS.put("prim", new PrimGenerator());
+        GENERATORS.put("wilson", new WilsonGenerator());
+        GENERATORS.put("aldousbroder", new AldousBroderGenerator());
+        GENERATORS.put("binarytree", new BinaryTreeGenerator());
+        GENERATORS.put("sidewinder", new SidewinderGenerator());
+    }
+
+    private final HttpServer myServer;
+    private final ExecutorService myExecutor;
+    // idle mazes, with their searches, by size and generator
+    private final Map<String, BlockingQueue<Workspace>> myPool;
+    private final LatencyHistogram myGenerateLatency;
+    private final LatencyHistogram mySolveLatency;
+
+
+    /**
+     * Create a server listening on the given loopback port (0 picks a free one); it does not
+     * answer requests until it is started.
+     */
+    public SolveServer (int port) {
+        try {
+            myServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        myExecutor = newExecutor();
+        myPool = new ConcurrentHashMap<>();
+        myGenerateLatency = new LatencyHistogram();
+        mySolveLatency = new LatencyHistogram();
+        myServer.setExecutor(myExecutor);
+        myServer.createContext("/generate", handler(this::generate, myGenerateLatency));
+        myServer.createContext("/solve", handler(this::solve, mySolveLatency));
+        myServer.createContext("/stats", handler(parameters -> getStats(), null));
+    }
+
+    /**
+     * Start a server on the given port, or DEFAULT_PORT, and keep it running.
+     */
+    public static void main (String[] args) {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        // answers are small and written in pieces, so don't let the socket hold them back waiting for more
+        if (System.getProperty(NO_DELAY) == null) {
+            System.setProperty(NO_DELAY, "true");
+        }
+        SolveServer server = new SolveServer(port);
+        server.start();
+        System.out.printf("serving mazes on http://%s:%d/ with %s%n",
+                InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), server.getThreading());
+    }
+
+    /**
+     * Start answering requests.
+     */
+    public void start () {
+        myServer.start();
+    }
+
+    /**
+     * Returns port the server is listening on.
+     */
+    public int getPort () {
+        return myServer.getAddress().getPort();
+    }
+
+    /**
+     * Returns how requests are being handled: on virtual threads or on pooled threads.
+     */
+    public String getThreading () {
+        return myExecutor.getClass().getSimpleName().contains("ThreadPerTask") ? "virtual threads" : "pooled threads";
+    }
+
+    /**
+     * Returns latencies of the generate requests answered so far.
+     */
+    public LatencyHistogram getGenerateLatency () {
+        return myGenerateLatency;
+    }
+
+    /**
+     * Returns latencies of the solve requests answered so far.
+     */
+    public LatencyHistogram getSolveLatency () {
+        return mySolveLatency;
+    }
+
+    /**
+     * Stop answering requests and release every pooled maze.
+     */
+    @Override
+    public void close () {
+        myServer.stop(0);
+        myExecutor.shutdown();
+        for (BlockingQueue<Workspace> workspaces : myPool.values()) {
+            for (Workspace workspace = workspaces.poll(); workspace != null; workspace = workspaces.poll()) {
+                workspace.maze().close();
+            }
+        }
+    }
+
+    // Answer a generate request with the maze, a line of '#' (walls) and '.' (halls) per row
+    private String generate (Map<String, String> parameters) {
+        Request request = new Request(parameters);
+        Workspace workspace = borrow(request);
+        Maze maze = workspace.maze();
+        try {
+            StringBuilder result = new StringBuilder();
+            result.append("seed ").append(request.seed()).append('\n');
+            for (int r = 0; r < maze.getNumRows(); r += 1) {
+                for (int c = 0; c < maze.getNumColumns(); c += 1) {
+                    result.append(maze.getState(r, c) == Spot.WALL ? '#' : '.');
+                }
+                result.append('\n');
+            }
+            return result.toString();
+        }
+        finally {
+            giveBack(request, workspace);
+        }
+    }
+
+    // Answer a solve request with the path found and how long it took to find
+    private String solve (Map<String, String> parameters) {
+        Request request = new Request(parameters);
+        String name = parameters.getOrDefault("solver", "bfs");
+        Function<Maze, SearchAlgorithm> solver = SOLVERS.get(name);
+        if (solver == null) {
+            throw new IllegalArgumentException("solver must be one of " + SOLVERS.keySet());
+        }
+        Workspace workspace = borrow(request);
+        try {
+            long start = System.nanoTime();
+            SearchAlgorithm search = workspace.searches().get(name);
+            if (search != null) {
+                search.restart();
+            }
+            else {
+                search = solver.apply(workspace.maze());
+                if (search.canRestart()) {
+                    workspace.searches().put(name, search);
+                }
+            }
+            long maxSteps = (long)STEPS_PER_SPOT * request.rows() * request.columns();
+            long steps = 0;
+            while (! search.step() && steps < maxSteps) {
+                steps += 1;
+            }
+            long nanos = System.nanoTime() - start;
+            Path path = search.getPath();
+            return String.format("{\"solver\": \"%s\", \"rows\": %d, \"columns\": %d, \"seed\": %d, \"found\": %b, "
+                            + "\"steps\": %d, \"nanos\": %d, \"length\": %d, \"path\": \"%s\"}\n",
+                    search, request.rows(), request.columns(), request.seed(), path != null,
+                    search.getNumOfSteps(), nanos, (path == null) ? -1 : path.length(), (path == null) ? "" : path);
+        }
+        finally {
+            giveBack(request, workspace);
+        }
+    }
+
+    private String getStats () {
+        return "generate " + myGenerateLatency + "\nsolve    " + mySolveLatency + "\n";
+    }
+
+    // Return given maze and its searches to the pool, unless the pool is full
+    private void giveBack (Request request, Workspace workspace) {
+        if (! myPool.get(request.key()).offer(workspace)) {
+            workspace.maze().close();
+        }
+    }
+
+    // Handler that answers each request with the given function, timing it in the given histogram
+    private HttpHandler handler (Function<Map<String, String>, String> answer, LatencyHistogram latency) {
+        return exchange -> {
+            long start = System.nanoTime();
+            int status = 200;
+            String body;
+            try {
+                body = answer.apply(parse(exchange.getRequestURI().getRawQuery()));
+            }
+            catch (IllegalArgumentException e) {
+                status = 400;
+                body = e.getMessage() + "\n";
+            }
+            catch (RuntimeException e) {
+                status = 500;
+                body = e + "\n";
+            }
+            send(exchange, status, body);
+            if (latency != null && status == 200) {
+                latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static void send (HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parse (String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    // Executor running each task on a virtual thread if this Java has them, or on a pooled thread
+    private static ExecutorService newExecutor () {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            // virtual threads arrived in Java 21 (earlier only as a preview)
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+
+    /**
+     * The maze a request asks for: its size, generator and seed.
+     */
+    private record Request(int rows, int columns, String generator, long seed) {
+        Request (Map<String, String> parameters) {
+            this(intParameter(parameters, "rows", DEFAULT_ROWS), intParameter(parameters, "columns", DEFAULT_COLUMNS),
+                    parameters.getOrDefault("generator", "kruskal"),
+                    parameters.containsKey("seed") ? longParameter(parameters, "seed") : ThreadLocalRandom.current().nextLong());
+            if (rows < 3 || columns < 3 || (long)rows * columns > MAX_SPOTS) {
+                throw new IllegalArgumentException("rows and columns must be at least 3 and make at most " + MAX_SPOTS + " spots");
+            }
+            if (! GENERATORS.containsKey(generator)) {
+                throw new IllegalArgumentException("generator must be one of " + GENERATORS.keySet());
+            }
+        }
+
+        String key () {
+            return rows + "x" + columns + "/" + generator;
+        }
+    }
+
+    // Pooled maze of the request's size and generator, or a new one, carved from the request's seed
+    private Workspace borrow (Request request) {
+        Workspace workspace = myPool.computeIfAbsent(request.key(), key -> new ArrayBlockingQueue<>(MAX_POOLED)).poll();
+        if (workspace == null) {
+            // storage for a new maze, not carved until it is carved from the seed below
+            long size = Layout.ROW_MAJOR.capacity(request.rows(), request.columns());
+            workspace = new Workspace(Maze.attach(request.rows(), request.columns(), Layout.ROW_MAJOR,
+                    new ArrayCellStore(size), GENERATORS.get(request.generator())), new HashMap<>());
+        }
+        workspace.maze().createMaze(request.seed());
+        return workspace;
+    }
+
+
+    /**
+     * A pooled maze and the searches run on it so far, by name, ready to be restarted.
+     */
+    private record Workspace(Maze maze, Map<String, SearchAlgorithm> searches) {}
+
+
+    private static int intParameter (Map<String, String> parameters, String name, int otherwise) {
+        if (! parameters.containsKey(name)) {
+            return otherwise;
+        }
+        long value = longParameter(parameters, name);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " must be between " + Integer.MIN_VALUE + " and " + Integer.MAX_VALUE);
+        }
+        return (int)value;
+    }
+
+    private static long longParameter (Map<String, String> parameters, String name) {
+        try {
+            return Long.parseLong(parameters.get(name));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+}
@@ -20,7 +20,8 @@ public class BFS extends SearchAlgorithm {
 	private Queue<Spot> myFrontier;
 
 	public BFS (Maze maze) {
-		super(TITLE, maze);
+		// its trail of paths is a map, which counts its spots with an int
+		super(TITLE, intSized(maze, TITLE));
 		myFrontier = new LinkedList<>();
 
 		setMyFrontier(myFrontier);
@@ -67,4 +68,14 @@ public class BFS extends SearchAlgorithm {
 		return getMyFrontier().isEmpty() || (super.isSearchOver());
 	}
 
+	// Its only state of its own is the frontier
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myFrontier.add(getMyCurrent());
+	}
 }
@@ -0,0 +1,255 @@
+package maze.solvers;
+
+import maze.model.BitGrid;
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.Arrays;
+
+
+/**
+ * This class represents a word-parallel Breadth-First maze search algorithm.
+ *
+ * Open spots, visited spots and the frontier are each kept as a bit-packed grid, so
+ * one step advances the whole frontier by one spot using shifts and masks that cover
+ * sixty-four columns at a time:
+ *   next = (east | west | north | south of frontier) & open & ~visited
+ * Only rows next to the current frontier are touched in each step.
+ *
+ * Rather than a trail of paths, each reached spot remembers its distance from the
+ * start modulo three. Neighboring spots differ in distance by at most one, so the
+ * path is recovered by walking back from the goal through any neighbor one layer closer.
+ *
+ * @author Wei Wu
+ */
+public class BitFlood extends SearchAlgorithm {
+	public static final String TITLE = "Bit-Parallel Flood";
+	private static final int NUM_LAYERS = 3;
+
+	private final boolean isMarkingMaze;
+	private final BitGrid myOpen;
+	private final BitGrid myVisited;
+	private final BitGrid[] myLayers;
+	private BitGrid myFrontier;
+	private BitGrid myNext;
+	// rows holding at least one frontier spot
+	private int[] myRows;
+	private int myNumRows;
+	private int[] myNextRows;
+	// step in which each row was last considered, so it is not considered twice
+	private final int[] myRowStamps;
+	private int myDistance;
+	private long myFrontierSize;
+	private long myMaxFrontierSize;
+	private boolean isFound;
+
+
+	/**
+	 * Create a flood that colors spots in the maze as it reaches them.
+	 */
+	public BitFlood (Maze maze) {
+		this(maze, true);
+	}
+
+	/**
+	 * Create a flood that can leave the maze untouched until the path is found, for raw speed.
+	 */
+	public BitFlood (Maze maze, boolean markMaze) {
+		super(TITLE, maze);
+		isMarkingMaze = markMaze;
+		int rows = maze.getNumRows();
+		int columns = maze.getNumColumns();
+		myOpen = BitGrid.openSpots(maze);
+		myVisited = new BitGrid(rows, columns);
+		myLayers = new BitGrid[NUM_LAYERS];
+		for (int k = 0; k < NUM_LAYERS; k += 1) {
+			myLayers[k] = new BitGrid(rows, columns);
+		}
+		myFrontier = new BitGrid(rows, columns);
+		myNext = new BitGrid(rows, columns);
+		myRows = new int[rows];
+		myNextRows = new int[rows];
+		myRowStamps = new int[rows];
+		begin();
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		// color successful path found
+		if (isSearchOver()) {
+			if (isFound) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+		myMaxFrontierSize = Math.max(myMaxFrontierSize, myFrontierSize);
+
+		// advance every frontier row, plus the rows just above and below it
+		BitGrid layer = myLayers[(myDistance + 1) % NUM_LAYERS];
+		int numNextRows = 0;
+		myFrontierSize = 0;
+		for (int k = 0; k < myNumRows; k += 1) {
+			for (int r = myRows[k] - 1; r <= myRows[k] + 1; r += 1) {
+				if (r > 0 && r < myOpen.getNumRows() - 1 && myRowStamps[r] != getNumOfSteps()) {
+					myRowStamps[r] = getNumOfSteps();
+					if (advanceRow(r, layer)) {
+						myNextRows[numNextRows++] = r;
+					}
+				}
+			}
+		}
+
+		// old frontier is spent: clear it and swap it with the one just found
+		for (int k = 0; k < myNumRows; k += 1) {
+			for (int w = 0; w < myFrontier.getWordsPerRow(); w += 1) {
+				myFrontier.setWord(myRows[k], w, 0);
+			}
+		}
+		BitGrid frontier = myFrontier;
+		myFrontier = myNext;
+		myNext = frontier;
+		int[] rows = myRows;
+		myRows = myNextRows;
+		myNextRows = rows;
+		myNumRows = numNextRows;
+		myDistance += 1;
+
+		Spot goal = getMyMaze().getGoal();
+		isFound = myVisited.get(goal.getX(), goal.getY());
+		if (isFound) {
+			setMyCurrent(goal);
+		}
+		return false;
+	}
+
+	// Its own bit grids are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	// Its own bit grids are cleared in place, and the open spots read again from the maze
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myOpen.setOpenSpots(getMyMaze());
+		myVisited.clear();
+		for (BitGrid layer : myLayers) {
+			layer.clear();
+		}
+		myFrontier.clear();
+		myNext.clear();
+		Arrays.fill(myRowStamps, 0);
+		myNumRows = 0;
+		myDistance = 0;
+		myMaxFrontierSize = 0;
+		begin();
+	}
+
+	/**
+	 * Returns number of moves in the shortest path from start to goal, or -1 if it has not been found.
+	 */
+	public int getDistance () {
+		return isFound ? myDistance : -1;
+	}
+
+	@Override
+	public boolean findTheGoal () {
+		return isFound;
+	}
+
+	@Override
+	public int getMaxSize () {
+		return (int)Math.min(Integer.MAX_VALUE, myMaxFrontierSize);
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		long words = myOpen.getWords().length + myVisited.getWords().length
+				+ myFrontier.getWords().length + myNext.getWords().length
+				+ NUM_LAYERS * (long)myLayers[0].getWords().length;
+		return words * Long.BYTES + (myRows.length + myNextRows.length + myRowStamps.length) * (long)Integer.BYTES;
+	}
+
+	// Search is over once the goal is reached or the frontier runs dry
+	@Override
+	protected boolean isSearchOver () {
+		return isFound || myNumRows == 0;
+	}
+
+	// Recover the path by walking back from the goal one layer at a time, recording it as a trail
+	@Override
+	protected void markPath () {
+		Spot step = getMyMaze().getGoal();
+		step.markAsPath();
+		for (int d = myDistance; d > 0; d -= 1) {
+			Spot previous = null;
+			for (Spot neighbor : getMyMaze().getNeighbors(step)) {
+				if (myLayers[(d - 1) % NUM_LAYERS].get(neighbor.getX(), neighbor.getY())) {
+					previous = neighbor;
+					break;
+				}
+			}
+			previous.markAsPath();
+			getMyPaths().put(step, previous);
+			step = previous;
+		}
+	}
+
+	// Compute next frontier for one row, returning true if it reached any spots
+	private boolean advanceRow (int r, BitGrid layer) {
+		long reached = 0;
+		for (int w = 0; w < myOpen.getWordsPerRow(); w += 1) {
+			long here = myFrontier.getWord(r, w);
+			long east = (here << 1) | (myFrontier.getWord(r, w - 1) >>> (Long.SIZE - 1));
+			long west = (here >>> 1) | (myFrontier.getWord(r, w + 1) << (Long.SIZE - 1));
+			long next = (east | west | myFrontier.getWord(r - 1, w) | myFrontier.getWord(r + 1, w))
+					& myOpen.getWord(r, w) & ~myVisited.getWord(r, w);
+			myNext.setWord(r, w, next);
+			if (next != 0) {
+				myVisited.setWord(r, w, myVisited.getWord(r, w) | next);
+				layer.setWord(r, w, layer.getWord(r, w) | next);
+				myFrontierSize += Long.bitCount(next);
+				reached |= next;
+				if (isMarkingMaze) {
+					markReached(r, w, next);
+				}
+			}
+		}
+		return reached != 0;
+	}
+
+	// Color each newly reached spot in one word of a row
+	private void markReached (int r, int w, long bits) {
+		while (bits != 0) {
+			int c = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+			getMyMaze().getSpot(r, c).markAsVisited();
+			bits &= bits - 1;
+		}
+	}
+
+	// Frontier holding only the start
+	private void begin () {
+		Spot start = getMyCurrent();
+		myFrontier.set(start.getX(), start.getY());
+		myVisited.set(start.getX(), start.getY());
+		myLayers[0].set(start.getX(), start.getY());
+		myRows[myNumRows++] = start.getX();
+		myFrontierSize = 1;
+		isFound = isGoal(start.getX(), start.getY());
+	}
+
+	private boolean isGoal (int r, int c) {
+		Spot goal = getMyMaze().getGoal();
+		return goal.getX() == r && goal.getY() == c;
+	}
+}
@@ -20,7 +20,8 @@ public class DFS extends SearchAlgorithm {
 	private Stack<Spot> myFrontier;
 
 	public DFS (Maze maze) {
-		super(TITLE, maze);
+		// its trail of paths is a map, which counts its spots with an int
+		super(TITLE, intSized(maze, TITLE));
 		myFrontier = new Stack<>();
 
 		setMyFrontier(myFrontier);
@@ -77,4 +78,15 @@ public class DFS extends SearchAlgorithm {
 	protected boolean isSearchOver () {
 		return getMyFrontier().isEmpty() || (super.isSearchOver());
 	}
+
+	// Its only state of its own is the frontier
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myFrontier.push(getMyCurrent());
+	}
 }
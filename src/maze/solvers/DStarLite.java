@@ -0,0 +1,407 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.MazeListener;
+import maze.model.Path;
+import maze.model.Spot;
+import maze.model.Terrain;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * This class represents the D* Lite maze search algorithm, which keeps its solution up to
+ * date as walls are added to or removed from the maze (see Maze.setWall()), repairing only
+ * the part of its search that the change affects rather than starting over.
+ *
+ * The search runs backward, from the goal toward the start, keeping for each spot its cost
+ * to the goal (g) and a one-step lookahead of that cost from its neighbors (rhs). A spot is
+ * on the frontier while the two disagree, keyed by the smaller plus the Manhattan distance
+ * to the start, so only spots that could lie on a cheaper path are ever settled. When a wall
+ * changes, only that spot and its neighbors are looked at again, and settling resumes until
+ * the start is consistent once more; the path is then read off by always moving to the
+ * neighbor with the cheapest cost to the goal. The start may also move, as an agent walking
+ * the path would, without starting over.
+ *
+ * Each step settles one spot; once the path is found, further steps do nothing until the walls
+ * change. The search listens to its maze, so it should be closed once it is no longer needed.
+ *
+ * @author Wei Wu
+ */
+public class DStarLite extends SearchAlgorithm implements MazeListener, AutoCloseable {
+	public static final String TITLE = "D* Lite";
+	private static final int INFINITY = Integer.MAX_VALUE;
+	private static final int NOT_QUEUED = -1;
+
+	// cost from each spot to the goal as last settled (g), and as its neighbors suggest (rhs)
+	private final int[] myCosts;
+	private final int[] myLookaheads;
+	// data structure used to keep search frontier -- a binary heap of spots that can change their keys
+	private final int[] myHeap;
+	private final int[] myPositions;
+	private final long[] myKeys;
+	private int myHeapSize;
+	// spots that turned into or out of walls since the search last caught up
+	private final BitSet myChanged;
+	private final int myNumColumns;
+	private final int myGoal;
+	// spot the path is planned from, and where it was when the frontier's keys were last made
+	private int myStart;
+	private int myLastStart;
+	// amount every key made since the start first moved is raised by, so older keys stay comparable
+	private int myKeyModifier;
+	private Path myPath;
+	private boolean isMarked;
+	private boolean isConsistent;
+	private int myMaxSize;
+	private long myNumRepairs;
+
+
+	public DStarLite (Maze maze) {
+		super(TITLE, intSized(maze, TITLE));
+		myNumColumns = maze.getNumColumns();
+		int size = Maze.getIntSize(maze.getNumRows(), myNumColumns, TITLE);
+		myCosts = new int[size];
+		Arrays.fill(myCosts, INFINITY);
+		myLookaheads = new int[size];
+		Arrays.fill(myLookaheads, INFINITY);
+		myHeap = new int[size];
+		myPositions = new int[size];
+		Arrays.fill(myPositions, NOT_QUEUED);
+		myKeys = new long[size];
+		myChanged = new BitSet(size);
+		myGoal = indexOf(maze.getGoal().getX(), maze.getGoal().getY());
+		myStart = indexOf(getMyCurrent().getX(), getMyCurrent().getY());
+		myLastStart = myStart;
+
+		myLookaheads[myGoal] = 0;
+		push(myGoal, keyOf(myGoal));
+		maze.addListener(this);
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		repair();
+		// color successful path found
+		if (isSearchOver()) {
+			if (myCosts[myStart] != INFINITY && ! isMarked) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+		myMaxSize = Math.max(myMaxSize, myHeapSize);
+		if (myHeapSize == 0 || (myKeys[myHeap[0]] >= keyOf(myStart) && myLookaheads[myStart] == myCosts[myStart])) {
+			// nothing left on the frontier could make the start's cost any cheaper
+			isConsistent = true;
+			if (myCosts[myStart] != INFINITY) {
+				setMyCurrent(getMyMaze().getGoal());
+			}
+			return false;
+		}
+
+		int spot = myHeap[0];
+		long key = keyOf(spot);
+		if (myKeys[spot] < key) {
+			// its key was made before the start moved, so it may be too low
+			update(spot, key);
+		}
+		else if (myCosts[spot] > myLookaheads[spot]) {
+			// cheaper than it was: settle it and let its neighbors know
+			myCosts[spot] = myLookaheads[spot];
+			remove(spot);
+			getMyMaze().getSpot(spot / myNumColumns, spot % myNumColumns).markAsVisited();
+			updateNeighbors(spot);
+		}
+		else {
+			// dearer than it was: forget it, so it and its neighbors are reconsidered
+			myCosts[spot] = INFINITY;
+			updateSpot(spot);
+			updateNeighbors(spot);
+		}
+		return false;
+	}
+
+	/**
+	 * Move the spot the path is planned from to the given open spot, as an agent walking
+	 * the path would, keeping everything searched so far.
+	 */
+	public void moveTo (Spot spot) {
+		// simple error checking, we will see better ways in the future
+		assert(spot.getState() != Spot.WALL);
+		int start = indexOf(spot.getX(), spot.getY());
+		myKeyModifier += distance(myLastStart, start);
+		myLastStart = start;
+		myStart = start;
+		setMyCurrent(getMyMaze().getSpot(spot.getX(), spot.getY()));
+		erasePath();
+		isConsistent = false;
+	}
+
+	/**
+	 * Returns cost of the path from the start to the goal, or -1 if there is none (yet).
+	 */
+	public int getCost () {
+		return (isConsistent && myCosts[myStart] != INFINITY) ? myCosts[myStart] : -1;
+	}
+
+	/**
+	 * Returns number of wall changes the search has repaired its solution after.
+	 */
+	public long getNumRepairs () {
+		return myNumRepairs;
+	}
+
+	/**
+	 * Returns the path found from the start to the goal, or null if there is none (yet).
+	 */
+	@Override
+	public Path getPath () {
+		if (isConsistent && myPath == null && myCosts[myStart] != INFINITY) {
+			myPath = followCosts();
+		}
+		return myPath;
+	}
+
+	/**
+	 * Only walls appearing or disappearing change the search, the next time it steps.
+	 */
+	@Override
+	public void stateChanged (int x, int y, int oldState, int newState) {
+		if ((oldState == Spot.WALL) != (newState == Spot.WALL)) {
+			myChanged.set(indexOf(x, y));
+		}
+	}
+
+	/**
+	 * Stop listening to the maze; the search will no longer notice walls changing.
+	 */
+	@Override
+	public void close () {
+		getMyMaze().removeListener(this);
+	}
+
+	// Largest number of spots on the frontier at once
+	@Override
+	public int getMaxSize () {
+		return myMaxSize;
+	}
+
+	// Its own costs and frontier are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return (long)myCosts.length * (4 * Integer.BYTES + Long.BYTES) + myChanged.size() / Byte.SIZE;
+	}
+
+	// Search is over once the start is consistent and no wall has changed since
+	@Override
+	protected boolean isSearchOver () {
+		return isConsistent;
+	}
+
+	// The path is marked as a whole, following the costs down to the goal
+	@Override
+	protected void markPath () {
+		getPath().mark(getMyMaze());
+		isMarked = true;
+	}
+
+	// Look again at every spot that turned into or out of a wall, and at its neighbors, whose
+	// cost to move into it changed
+	private void repair () {
+		if (myChanged.isEmpty()) {
+			return;
+		}
+		for (int spot = myChanged.nextSetBit(0); spot >= 0; spot = myChanged.nextSetBit(spot + 1)) {
+			updateSpot(spot);
+			updateNeighbors(spot);
+			myNumRepairs += 1;
+		}
+		myChanged.clear();
+		erasePath();
+		isConsistent = false;
+		setMyCurrent(getMyMaze().getSpot(myStart / myNumColumns, myStart % myNumColumns));
+	}
+
+	// Recompute given spot's lookahead cost and put it on the frontier only if it is inconsistent
+	private void updateSpot (int spot) {
+		if (spot != myGoal) {
+			myLookaheads[spot] = lookahead(spot);
+		}
+		if (myCosts[spot] != myLookaheads[spot]) {
+			if (myPositions[spot] == NOT_QUEUED) {
+				push(spot, keyOf(spot));
+			}
+			else {
+				update(spot, keyOf(spot));
+			}
+		}
+		else if (myPositions[spot] != NOT_QUEUED) {
+			remove(spot);
+		}
+	}
+
+	private void updateNeighbors (int spot) {
+		int x = spot / myNumColumns;
+		int y = spot % myNumColumns;
+		for (Direction d : Direction.values()) {
+			if (getMyMaze().isInBounds(x + d.getDX(), y + d.getDY())) {
+				updateSpot(indexOf(x + d.getDX(), y + d.getDY()));
+			}
+		}
+	}
+
+	// Cheapest cost to the goal through any of given spot's neighbors, or INFINITY from a wall
+	private int lookahead (int spot) {
+		int x = spot / myNumColumns;
+		int y = spot % myNumColumns;
+		if (getMyMaze().getState(x, y) == Spot.WALL) {
+			return INFINITY;
+		}
+		int best = INFINITY;
+		for (Direction d : Direction.values()) {
+			int nx = x + d.getDX();
+			int ny = y + d.getDY();
+			int next = indexOf(nx, ny);
+			if (getMyMaze().isInBounds(nx, ny) && getMyMaze().getState(nx, ny) != Spot.WALL && myCosts[next] != INFINITY) {
+				best = Math.min(best, myCosts[next] + getMyMaze().getCost(nx, ny));
+			}
+		}
+		return best;
+	}
+
+	// Path from the start that always moves to the open neighbor with the cheapest cost to the goal
+	private Path followCosts () {
+		Path path = new Path(myStart / myNumColumns, myStart % myNumColumns);
+		int spot = myStart;
+		while (spot != myGoal) {
+			int x = spot / myNumColumns;
+			int y = spot % myNumColumns;
+			Direction best = null;
+			long bestCost = INFINITY;
+			for (Direction d : Direction.values()) {
+				int nx = x + d.getDX();
+				int ny = y + d.getDY();
+				int next = indexOf(nx, ny);
+				if (getMyMaze().isInBounds(nx, ny) && getMyMaze().getState(nx, ny) != Spot.WALL && myCosts[next] != INFINITY
+						&& (long)myCosts[next] + getMyMaze().getCost(nx, ny) < bestCost) {
+					best = d;
+					bestCost = (long)myCosts[next] + getMyMaze().getCost(nx, ny);
+				}
+			}
+			path.append(best);
+			spot = indexOf(x + best.getDX(), y + best.getDY());
+		}
+		return path;
+	}
+
+	// Erase the path marked before the walls changed or the start moved
+	private void erasePath () {
+		if (isMarked) {
+			for (Spot spot : myPath.spots(getMyMaze())) {
+				spot.markAsEmpty();
+			}
+			isMarked = false;
+		}
+		myPath = null;
+	}
+
+	// Frontier key: the smaller of a spot's costs plus the distance to the start, then the smaller cost
+	private long keyOf (int spot) {
+		long cost = Math.min(myCosts[spot], myLookaheads[spot]);
+		if (cost == INFINITY) {
+			// only the start is ever asked for its key while it cannot reach the goal
+			return Long.MAX_VALUE;
+		}
+		return ((cost + distance(spot, myStart) + myKeyModifier) << Integer.SIZE) | cost;
+	}
+
+	private int distance (int from, int to) {
+		return Terrain.MIN_COST * (Math.abs(from / myNumColumns - to / myNumColumns)
+				+ Math.abs(from % myNumColumns - to % myNumColumns));
+	}
+
+	private int indexOf (int x, int y) {
+		return x * myNumColumns + y;
+	}
+
+	private void push (int spot, long key) {
+		myKeys[spot] = key;
+		myHeap[myHeapSize] = spot;
+		myPositions[spot] = myHeapSize;
+		myHeapSize += 1;
+		siftUp(myHeapSize - 1);
+	}
+
+	private void update (int spot, long key) {
+		long old = myKeys[spot];
+		myKeys[spot] = key;
+		if (key < old) {
+			siftUp(myPositions[spot]);
+		}
+		else {
+			siftDown(myPositions[spot]);
+		}
+	}
+
+	private void remove (int spot) {
+		int position = myPositions[spot];
+		myPositions[spot] = NOT_QUEUED;
+		myHeapSize -= 1;
+		if (position == myHeapSize) {
+			return;
+		}
+		int last = myHeap[myHeapSize];
+		myHeap[position] = last;
+		myPositions[last] = position;
+		siftUp(position);
+		siftDown(myPositions[last]);
+	}
+
+	private void siftUp (int position) {
+		int spot = myHeap[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (myKeys[myHeap[parent]] <= myKeys[spot]) {
+				break;
+			}
+			myHeap[position] = myHeap[parent];
+			myPositions[myHeap[position]] = position;
+			position = parent;
+		}
+		myHeap[position] = spot;
+		myPositions[spot] = position;
+	}
+
+	private void siftDown (int position) {
+		int spot = myHeap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= myHeapSize) {
+				break;
+			}
+			if (child + 1 < myHeapSize && myKeys[myHeap[child + 1]] < myKeys[myHeap[child]]) {
+				child += 1;
+			}
+			if (myKeys[myHeap[child]] >= myKeys[spot]) {
+				break;
+			}
+			myHeap[position] = myHeap[child];
+			myPositions[myHeap[position]] = position;
+			position = child;
+		}
+		myHeap[position] = spot;
+		myPositions[spot] = position;
+	}
+}
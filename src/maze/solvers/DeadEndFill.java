@@ -0,0 +1,245 @@
+package maze.solvers;
+
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+
+/**
+ * This class represents a Dead-End Filling maze search algorithm.
+ *
+ * Every dead end (an empty hall with at most one open neighbor) is filled in,
+ * which may turn the hall it led to into a new dead end. On a perfect maze,
+ * once no dead ends remain only the solution corridor is left.
+ *
+ * Each step fills one whole wavefront of dead ends in parallel: open-neighbor
+ * counts are kept in an atomic array so that exactly one worker sees a hall
+ * drop to a single opening and pushes it onto the lock-free worklist for the
+ * next wave.
+ *
+ * @author Wei Wu
+ */
+public class DeadEndFill extends SearchAlgorithm {
+	public static final String TITLE = "Dead-End Filling";
+
+	// number of open neighbors of each hall, indexed by row * columns + column
+	private final AtomicIntegerArray myDegrees;
+	// dead ends to be filled during the current step
+	private Queue<Spot> myFrontier;
+
+	public DeadEndFill (Maze maze) {
+		super(TITLE, intSized(maze, TITLE));
+		myDegrees = new AtomicIntegerArray(Maze.getIntSize(maze.getNumRows(), maze.getNumColumns(), TITLE));
+		myFrontier = findDeadEnds();
+		setMyFrontier(myFrontier);
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		if (myFrontier.isEmpty()) {
+			markCorridor();
+			return true;
+		}
+
+		recordSteps();
+		updateMaxSize();
+
+		Queue<Spot> nextWave = fillWave(myFrontier);
+		for (Spot spot : myFrontier) {
+			spot.markAsVisited();
+		}
+		myFrontier = nextWave;
+		setMyFrontier(myFrontier);
+		return false;
+	}
+
+	/**
+	 * Fill every dead end remaining in the maze without stopping between waves:
+	 * each worker follows its dead end's corridor until it reaches a junction
+	 * that some other corridor still keeps open.
+	 * @return number of halls filled
+	 */
+	public int fillAll () {
+		recordSteps();
+		updateMaxSize();
+		Queue<Spot> filled = new ConcurrentLinkedQueue<>();
+		myFrontier.parallelStream().forEach(spot -> {
+			Spot next = spot;
+			while (next != null) {
+				filled.add(next);
+				next = fill(next);
+			}
+		});
+		for (Spot spot : filled) {
+			spot.markAsVisited();
+		}
+		myFrontier.clear();
+		markCorridor();
+		return filled.size();
+	}
+
+	// Its own degree counts are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	// Its own degree counts are all counted again
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myFrontier = findDeadEnds();
+		setMyFrontier(myFrontier);
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return (long)myDegrees.length() * Integer.BYTES + (long)getMaxSize() * FRONTIER_ENTRY_BYTES;
+	}
+
+	// Every dead end is filled with no backtracking
+	@Override
+	public void updateBacktrack () {
+	}
+
+	// Count each hall's open neighbors in parallel, row by row, and collect the initial dead ends;
+	// walls count as having none, so counts left from before the maze was carved again are erased
+	private Queue<Spot> findDeadEnds () {
+		Maze maze = getMyMaze();
+		Queue<Spot> deadEnds = new ConcurrentLinkedQueue<>();
+		IntStream.range(1, maze.getNumRows() - 1).parallel().forEach(r -> {
+			for (int c = 1; c < maze.getNumColumns() - 1; c += 1) {
+				Spot spot = maze.getSpot(r, c);
+				if (spot.getState() != Spot.WALL) {
+					int degree = countOpenNeighbors(spot);
+					myDegrees.set(indexOf(spot), degree);
+					if (degree <= 1 && isFillable(spot)) {
+						deadEnds.add(spot);
+					}
+				}
+				else {
+					myDegrees.set(indexOf(spot), 0);
+				}
+			}
+		});
+		return deadEnds;
+	}
+
+	// Fill the given dead ends in parallel and return the halls that became dead ends as a result
+	private Queue<Spot> fillWave (Collection<Spot> wave) {
+		Queue<Spot> nextWave = new ConcurrentLinkedQueue<>();
+		wave.parallelStream().forEach(spot -> {
+			Spot next = fill(spot);
+			if (next != null) {
+				nextWave.add(next);
+			}
+		});
+		return nextWave;
+	}
+
+	// Fill given dead end and return the neighbor it turned into a new dead end, if any
+	private Spot fill (Spot spot) {
+		myDegrees.set(indexOf(spot), 0);
+		Spot next = null;
+		for (Spot neighbor : getMyMaze().getNeighbors(spot)) {
+			int index = indexOf(neighbor);
+			if (neighbor.getState() != Spot.WALL && myDegrees.get(index) > 0
+					&& myDegrees.decrementAndGet(index) == 1 && isFillable(neighbor)) {
+				next = neighbor;
+			}
+		}
+		return next;
+	}
+
+	// Once no dead ends remain, whatever is still open is the solution corridor, if it
+	// still joins the start to the goal
+	private void markCorridor () {
+		Maze maze = getMyMaze();
+		List<Spot> corridor = new ArrayList<>();
+		for (int r = 1; r < maze.getNumRows() - 1; r += 1) {
+			for (int c = 1; c < maze.getNumColumns() - 1; c += 1) {
+				if (myDegrees.get(r * maze.getNumColumns() + c) > 0) {
+					corridor.add(maze.getSpot(r, c));
+				}
+			}
+		}
+		for (Spot spot : corridor) {
+			spot.markAsPath();
+		}
+		maze.getStart().markAsPath();
+		if (isGoalReachable(corridor.size())) {
+			setMyCurrent(maze.getGoal());
+		}
+	}
+
+	// Returns true only if the goal is still open and the halls left open, of which there are
+	// given number, lead to it from the start
+	private boolean isGoalReachable (int numOpen) {
+		int start = indexOf(getMyMaze().getStart());
+		int goal = indexOf(getMyMaze().getGoal());
+		if (start == goal) {
+			return true;
+		}
+		if (myDegrees.get(start) == 0 || myDegrees.get(goal) == 0) {
+			return false;
+		}
+		int[] offsets = { -getMyMaze().getNumColumns(), -1, 1, getMyMaze().getNumColumns() };
+		BitSet seen = new BitSet(myDegrees.length());
+		int[] stack = new int[numOpen];
+		int size = 0;
+		seen.set(start);
+		stack[size++] = start;
+		while (size > 0) {
+			int spot = stack[--size];
+			if (spot == goal) {
+				return true;
+			}
+			for (int offset : offsets) {
+				int neighbor = spot + offset;
+				if (myDegrees.get(neighbor) > 0 && ! seen.get(neighbor)) {
+					seen.set(neighbor);
+					stack[size++] = neighbor;
+				}
+			}
+		}
+		return false;
+	}
+
+	private int countOpenNeighbors (Spot spot) {
+		int count = 0;
+		for (Spot neighbor : getMyMaze().getNeighbors(spot)) {
+			if (neighbor.getState() != Spot.WALL) {
+				count += 1;
+			}
+		}
+		return count;
+	}
+
+	// Start and goal are never filled, no matter how few openings they have
+	private boolean isFillable (Spot spot) {
+		return ! (isAt(spot, getMyMaze().getStart()) || isAt(spot, getMyMaze().getGoal()));
+	}
+
+	private boolean isAt (Spot spot, Spot other) {
+		return spot.getX() == other.getX() && spot.getY() == other.getY();
+	}
+
+	private int indexOf (Spot spot) {
+		return spot.getX() * getMyMaze().getNumColumns() + spot.getY();
+	}
+}
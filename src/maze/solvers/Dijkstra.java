@@ -0,0 +1,164 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+import maze.util.PackedArray;
+import maze.util.RadixHeap;
+
+
+/**
+ * This class represents Dijkstra's maze search algorithm, finding the cheapest path
+ * through a maze whose spots have different costs to enter (see Maze.getTerrain()).
+ *
+ * Spots are numbered in row-major order with a long, so it can search mazes with more
+ * spots than an int can number, and the frontier is a radix heap of those numbers (each
+ * with the direction it was reached from) keyed by their integer cost from the start.
+ * Entries are never updated: a spot may be pushed once by each neighbor, and only its
+ * cheapest entry settles it, marking it visited in the maze, so later ones are skipped.
+ * A search never allocates per spot: its only state per spot is two bits of direction
+ * back toward the start, in chunks.
+ *
+ * @author Wei Wu
+ */
+public class Dijkstra extends SearchAlgorithm {
+	public static final String TITLE = "Dijkstra";
+	// bits needed to hold a direction
+	private static final int DIRECTION_BITS = 2;
+
+	// data structure used to keep search frontier -- use a radix heap
+	private final RadixHeap myFrontier;
+	// direction from each settled spot back toward the start along its cheapest path
+	private final PackedArray myParents;
+	private final int myNumColumns;
+	private int myMaxSize;
+	private int myCost;
+	private boolean isFound;
+
+	public Dijkstra (Maze maze) {
+		super(TITLE, maze);
+		myNumColumns = maze.getNumColumns();
+		myParents = new PackedArray((long)maze.getNumRows() * myNumColumns, DIRECTION_BITS);
+		myFrontier = new RadixHeap();
+		begin();
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		// color successful path found
+		if (isSearchOver()) {
+			if (isFound) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+		myMaxSize = Math.max(myMaxSize, myFrontier.size());
+
+		// settle the cheapest spot on the frontier, skipping stale entries for spots already settled
+		int cost = myFrontier.peekKey();
+		long entry = myFrontier.pop();
+		long index = entry >>> DIRECTION_BITS;
+		int x = (int)(index / myNumColumns);
+		int y = (int)(index % myNumColumns);
+		if (getMyMaze().getState(x, y) == Spot.VISITED) {
+			return false;
+		}
+		myParents.set(index, (int)entry);
+		setMyCurrent(getMyMaze().getSpot(x, y));
+		if (findTheGoal()) {
+			isFound = true;
+			myCost = cost;
+			return false;
+		}
+		getMyMaze().setMark(x, y, Spot.VISITED);
+
+		// push each open neighbor not yet settled
+		for (Direction d : Direction.values()) {
+			int nx = x + d.getDX();
+			int ny = y + d.getDY();
+			if (getMyMaze().isInBounds(nx, ny)) {
+				int state = getMyMaze().getState(nx, ny);
+				if (state != Spot.WALL && state != Spot.VISITED) {
+					myFrontier.push(cost + getMyMaze().getCost(nx, ny), indexOf(nx, ny) << DIRECTION_BITS | d.reverse().ordinal());
+					getMyMaze().setMark(nx, ny, Spot.PATH);
+				}
+			}
+		}
+		return false;
+	}
+
+	// Its own parents and heap are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	// Its own parents and heap are cleared in place, and settled spots are marked only in the maze
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		begin();
+	}
+
+	/**
+	 * Returns total cost of the cheapest path from start to goal, or -1 if it has not been found.
+	 */
+	public int getCost () {
+		return isFound ? myCost : -1;
+	}
+
+	@Override
+	public int getMaxSize () {
+		return myMaxSize;
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		// each heap entry is an int key and a long value
+		return myParents.getNumBytes() + (long)myMaxSize * (Integer.BYTES + Long.BYTES);
+	}
+
+	// Search is over once the goal is settled or there is nothing left to settle
+	@Override
+	protected boolean isSearchOver () {
+		return isFound || myFrontier.isEmpty();
+	}
+
+	// Recover the path by following directions back from the goal, recording it as a trail
+	@Override
+	protected void markPath () {
+		Spot start = getMyMaze().getStart();
+		Spot step = getMyMaze().getGoal();
+		step.markAsPath();
+		while (! step.equals(start)) {
+			Spot previous = getMyMaze().getNeighbor(step, Direction.fromCode(myParents.get(indexOf(step.getX(), step.getY()))));
+			previous.markAsPath();
+			getMyPaths().put(step, previous);
+			step = previous;
+		}
+	}
+
+	// Nothing settled, with only the start on the frontier
+	private void begin () {
+		myParents.clear();
+		myFrontier.clear();
+		myMaxSize = 0;
+		myCost = 0;
+		isFound = false;
+		Spot start = getMyCurrent();
+		myFrontier.push(0, indexOf(start.getX(), start.getY()) << DIRECTION_BITS);
+	}
+
+	private long indexOf (int x, int y) {
+		return (long)x * myNumColumns + y;
+	}
+}
@@ -21,7 +21,8 @@ public class Greedy extends SearchAlgorithm {
 	private PriorityQueue<Spot> myFrontier;
 
 	public Greedy (Maze maze) {
-		super(TITLE, maze);
+		// its trail of paths is a map, which counts its spots with an int
+		super(TITLE, intSized(maze, TITLE));
 		myFrontier = new PriorityQueue<>();
 
 		setMyFrontier(myFrontier);
@@ -73,4 +74,14 @@ public class Greedy extends SearchAlgorithm {
 		return getMyFrontier().isEmpty() || (super.isSearchOver());
 	}
 
+	// Its only state of its own is the frontier
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myFrontier.add(getMyCurrent());
+	}
 }
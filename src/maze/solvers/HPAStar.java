@@ -0,0 +1,107 @@
+package maze.solvers;
+
+import maze.model.Maze;
+import maze.model.Path;
+
+
+/**
+ * This class represents a hierarchical A* maze search (HPA*): it answers the query from
+ * start to goal on a {@link HierarchicalMap} of the maze in a single step, rather than
+ * expanding one spot at a time, and leaves only the path it found marked.
+ *
+ * Building the map costs about as much as a few full searches, so it pays off when one map
+ * answers many queries; a map given to the search is shared, while one the search builds
+ * for itself is closed once the search is done.
+ *
+ * @author Wei Wu
+ */
+public class HPAStar extends SearchAlgorithm {
+	public static final String TITLE = "Hierarchical A*";
+
+	private final HierarchicalMap myMap;
+	private final boolean isOwnMap;
+	private Path myPath;
+	private boolean isDone;
+
+
+	/**
+	 * Create a search on a map of its own, built for the given maze.
+	 */
+	public HPAStar (Maze maze) {
+		this(maze, new HierarchicalMap(maze), true);
+	}
+
+	/**
+	 * Create a search on the given map of the given maze, which is left open once the search is done.
+	 */
+	public HPAStar (Maze maze, HierarchicalMap map) {
+		this(maze, map, false);
+	}
+
+	private HPAStar (Maze maze, HierarchicalMap map, boolean isOwnMap) {
+		super(TITLE, maze);
+		myMap = map;
+		this.isOwnMap = isOwnMap;
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		// color successful path found
+		if (isSearchOver()) {
+			if (myPath != null) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+		myPath = myMap.findPath(getMyMaze().getStart(), getMyMaze().getGoal());
+		isDone = true;
+		if (isOwnMap) {
+			myMap.close();
+		}
+		if (myPath != null) {
+			setMyCurrent(getMyMaze().getGoal());
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the map this search answers its query on.
+	 */
+	public HierarchicalMap getMap () {
+		return myMap;
+	}
+
+	// The path is kept as found, rather than as a trail
+	@Override
+	public Path getPath () {
+		return myPath;
+	}
+
+	// Its map is not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return myMap.getNumBytes();
+	}
+
+	// Search is over once its one query has been answered
+	@Override
+	protected boolean isSearchOver () {
+		return isDone;
+	}
+
+	// The path found is marked as a whole
+	@Override
+	protected void markPath () {
+		myPath.mark(getMyMaze());
+	}
+}
@@ -0,0 +1,626 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.MazeListener;
+import maze.model.Path;
+import maze.model.Spot;
+import maze.model.Terrain;
+import maze.util.RadixHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * This class represents a hierarchical map of a maze for answering path queries on
+ * mazes far too big to search spot by spot (as in HPA*, hierarchical path-finding A*).
+ *
+ * The maze is cut into square clusters. Wherever open spots face each other across the
+ * edge between two clusters, an entrance joins them: one in the middle of each run of
+ * such pairs, or one at each end of a long run. The spots on either side of an entrance
+ * are the nodes of an abstract graph, joined by the cost of crossing the entrance and by
+ * the cheapest cost between each pair of nodes of the same cluster without leaving it.
+ *
+ * A query joins its start and goal to the nodes of their clusters, runs A* over the
+ * abstract graph, and then refines only the segments of the abstract path it found into
+ * moves, each by a search confined to one cluster. Paths found this way are close to the
+ * cheapest, and exactly the cheapest in a perfect maze, whose paths are unique.
+ *
+ * The map listens to its maze: a spot turning into or out of a wall only marks its cluster
+ * to be rebuilt, along with the entrances on that cluster's edges and its neighbors' costs,
+ * just before the next query. A map should be closed once it is no longer needed, so the
+ * maze stops telling it about changes; it is not safe to query from several threads at once.
+ *
+ * @author Wei Wu
+ */
+public class HierarchicalMap implements MazeListener, AutoCloseable {
+	public static final int DEFAULT_CLUSTER_SIZE = 32;
+	// runs of open pairs at least this long get an entrance at each end rather than one in the middle
+	private static final int WIDE_ENTRANCE = 6;
+	private static final int UNREACHED = Integer.MAX_VALUE;
+	private static final byte NO_PARENT = -1;
+	private static final int NO_SPOT = -1;
+
+	private final Maze myMaze;
+	private final int myClusterSize;
+	private final int myNumColumns;
+	private final int myNumClusterRows;
+	private final int myNumClusterColumns;
+	// pairs of facing open spots (this cluster's spot first) across each cluster's east and south edges
+	private final int[][] myEastCrossings;
+	private final int[][] mySouthCrossings;
+	// spots that are entrance nodes of each cluster, in increasing order
+	private final int[][] myNodes;
+	// cheapest cost from each of a cluster's nodes to each other without leaving it, row by row
+	private final int[][] myCosts;
+	// clusters changed since they were last built
+	private final BitSet myDirty;
+	// scratch space for searches confined to one cluster, one per thread building the map
+	private final ThreadLocal<Workspace> myWorkspace;
+	private long myNumRebuilt;
+
+
+	/**
+	 * Create a map of the given maze cut into clusters of DEFAULT_CLUSTER_SIZE spots on a side.
+	 */
+	public HierarchicalMap (Maze maze) {
+		this(maze, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Create a map of the given maze cut into clusters of the given number of spots on a side.
+	 */
+	public HierarchicalMap (Maze maze, int clusterSize) {
+		// simple error checking, we will see better ways in the future
+		assert(clusterSize >= 2);
+		myMaze = maze;
+		myClusterSize = clusterSize;
+		myNumColumns = maze.getNumColumns();
+		// spots are numbered with an int
+		Maze.getIntSize(maze.getNumRows(), myNumColumns, "Hierarchical map");
+		myNumClusterRows = (maze.getNumRows() + clusterSize - 1) / clusterSize;
+		myNumClusterColumns = (myNumColumns + clusterSize - 1) / clusterSize;
+		int numClusters = myNumClusterRows * myNumClusterColumns;
+		myEastCrossings = new int[numClusters][];
+		mySouthCrossings = new int[numClusters][];
+		myNodes = new int[numClusters][];
+		myCosts = new int[numClusters][];
+		myDirty = new BitSet(numClusters);
+		myWorkspace = ThreadLocal.withInitial(() -> new Workspace(clusterSize));
+
+		// every cluster's entrances must be known before any cluster's costs between them
+		IntStream.range(0, numClusters).parallel().forEach(c -> {
+			myEastCrossings[c] = findEastCrossings(c);
+			mySouthCrossings[c] = findSouthCrossings(c);
+		});
+		IntStream.range(0, numClusters).parallel().forEach(this::buildCluster);
+		maze.addListener(this);
+	}
+
+	/**
+	 * Returns cheapest path found between the given points, or null if there is none.
+	 */
+	public Path findPath (int startX, int startY, int goalX, int goalY) {
+		// simple error checking, we will see better ways in the future
+		assert(myMaze.getState(startX, startY) != Spot.WALL && myMaze.getState(goalX, goalY) != Spot.WALL);
+		rebuild();
+		int[] nodes = findAbstractPath(indexOf(startX, startY), indexOf(goalX, goalY));
+		if (nodes == null) {
+			return null;
+		}
+		Path path = new Path(startX, startY);
+		Workspace workspace = myWorkspace.get();
+		for (int k = 1; k < nodes.length; k += 1) {
+			if (clusterOf(nodes[k - 1]) == clusterOf(nodes[k])) {
+				refine(workspace, nodes[k - 1], nodes[k], path);
+			}
+			else {
+				// crossing an entrance is a single move
+				path.append(directionOf(nodes[k - 1], nodes[k]));
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Returns cheapest path found between the given spots, or null if there is none.
+	 */
+	public Path findPath (Spot start, Spot goal) {
+		return findPath(start.getX(), start.getY(), goal.getX(), goal.getY());
+	}
+
+	/**
+	 * Mark the cluster holding the given point, and the entrances on its edges, to be rebuilt
+	 * before the next query; done automatically whenever a spot turns into or out of a wall.
+	 */
+	public void invalidate (int x, int y) {
+		// simple error checking, we will see better ways in the future
+		assert(myMaze.isValid(x, y));
+		myDirty.set(clusterOf(indexOf(x, y)));
+	}
+
+	/**
+	 * Rebuild every cluster changed since it was last built, along with the entrances on its
+	 * edges and its neighbors' costs between their entrances; done before every query.
+	 */
+	public void rebuild () {
+		if (myDirty.isEmpty()) {
+			return;
+		}
+		BitSet east = new BitSet();
+		BitSet south = new BitSet();
+		BitSet affected = new BitSet();
+		myDirty.stream().forEach(c -> {
+			int row = c / myNumClusterColumns;
+			int column = c % myNumClusterColumns;
+			east.set(c);
+			south.set(c);
+			affected.set(c);
+			if (column > 0) {
+				east.set(c - 1);
+				affected.set(c - 1);
+			}
+			if (row > 0) {
+				south.set(c - myNumClusterColumns);
+				affected.set(c - myNumClusterColumns);
+			}
+			if (column + 1 < myNumClusterColumns) {
+				affected.set(c + 1);
+			}
+			if (row + 1 < myNumClusterRows) {
+				affected.set(c + myNumClusterColumns);
+			}
+		});
+		east.stream().parallel().forEach(c -> myEastCrossings[c] = findEastCrossings(c));
+		south.stream().parallel().forEach(c -> mySouthCrossings[c] = findSouthCrossings(c));
+		affected.stream().parallel().forEach(this::buildCluster);
+		myNumRebuilt += affected.cardinality();
+		myDirty.clear();
+	}
+
+	/**
+	 * Returns number of spots on a side of each cluster.
+	 */
+	public int getClusterSize () {
+		return myClusterSize;
+	}
+
+	/**
+	 * Returns number of clusters the maze is cut into.
+	 */
+	public int getNumClusters () {
+		return myNodes.length;
+	}
+
+	/**
+	 * Returns number of nodes in the abstract graph.
+	 */
+	public long getNumNodes () {
+		long count = 0;
+		for (int[] nodes : myNodes) {
+			count += nodes.length;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns number of clusters rebuilt since the map was made.
+	 */
+	public long getNumRebuilt () {
+		return myNumRebuilt;
+	}
+
+	/**
+	 * Returns number of bytes held by the abstract graph.
+	 */
+	public long getNumBytes () {
+		long count = 0;
+		for (int c = 0; c < myNodes.length; c += 1) {
+			count += myEastCrossings[c].length + mySouthCrossings[c].length + myNodes[c].length + myCosts[c].length;
+		}
+		return count * Integer.BYTES;
+	}
+
+	/**
+	 * Only walls appearing or disappearing change the map.
+	 */
+	@Override
+	public void stateChanged (int x, int y, int oldState, int newState) {
+		if ((oldState == Spot.WALL) != (newState == Spot.WALL)) {
+			invalidate(x, y);
+		}
+	}
+
+	/**
+	 * Stop listening to the maze; the map should not be queried afterwards.
+	 */
+	@Override
+	public void close () {
+		myMaze.removeListener(this);
+	}
+
+	// A* over the abstract graph, with the start and goal joined to the nodes of their clusters;
+	// returns the spots it passes through, from start to goal, or null if the goal cannot be reached
+	private int[] findAbstractPath (int start, int goal) {
+		Workspace workspace = myWorkspace.get();
+		int startCluster = clusterOf(start);
+		int goalCluster = clusterOf(goal);
+		int[] fromStart = costsFrom(workspace, start, false);
+		int direct = (startCluster == goalCluster) ? workspace.costOf(goal) : UNREACHED;
+		int[] toGoal = costsFrom(workspace, goal, true);
+
+		AbstractSearch search = new AbstractSearch(start, goal);
+		search.setCost(start, 0, NO_SPOT);
+		search.myFrontier.push(estimate(start, goal), start);
+		while (! search.myFrontier.isEmpty()) {
+			int estimate = search.myFrontier.peekKey();
+			int spot = (int)search.myFrontier.pop();
+			int cost = search.costOf(spot);
+			if (estimate > cost + estimate(spot, goal)) {
+				// already expanded more cheaply
+				continue;
+			}
+			if (spot == goal) {
+				return search.pathTo(goal);
+			}
+			int cluster = clusterOf(spot);
+			if (spot == start) {
+				for (int k = 0; k < fromStart.length; k += 1) {
+					search.relax(start, myNodes[startCluster][k], cost, fromStart[k]);
+				}
+				search.relax(start, goal, cost, direct);
+			}
+			int k = Arrays.binarySearch(myNodes[cluster], spot);
+			if (k >= 0) {
+				int[] nodes = myNodes[cluster];
+				for (int l = 0; l < nodes.length; l += 1) {
+					search.relax(spot, nodes[l], cost, myCosts[cluster][k * nodes.length + l]);
+				}
+				if (cluster == goalCluster) {
+					search.relax(spot, goal, cost, toGoal[k]);
+				}
+				relaxCrossings(search, spot, cost);
+			}
+		}
+		return null;
+	}
+
+	// Relax every entrance the given node is one side of
+	private void relaxCrossings (AbstractSearch search, int spot, int cost) {
+		int cluster = clusterOf(spot);
+		int column = cluster % myNumClusterColumns;
+		relaxCrossings(search, spot, cost, myEastCrossings[cluster], 0);
+		relaxCrossings(search, spot, cost, mySouthCrossings[cluster], 0);
+		if (column > 0) {
+			relaxCrossings(search, spot, cost, myEastCrossings[cluster - 1], 1);
+		}
+		if (cluster >= myNumClusterColumns) {
+			relaxCrossings(search, spot, cost, mySouthCrossings[cluster - myNumClusterColumns], 1);
+		}
+	}
+
+	private void relaxCrossings (AbstractSearch search, int spot, int cost, int[] crossings, int side) {
+		for (int k = 0; k < crossings.length; k += 2) {
+			if (crossings[k + side] == spot) {
+				int other = crossings[k + 1 - side];
+				search.relax(spot, other, cost, costOf(other));
+			}
+		}
+	}
+
+	// Cheapest cost between given spot and each node of its cluster without leaving it: from the spot,
+	// or to it if reversed; the workspace is left holding the costs to every spot of the cluster
+	private int[] costsFrom (Workspace workspace, int spot, boolean isReversed) {
+		int cluster = clusterOf(spot);
+		search(workspace, cluster, spot, -1, isReversed);
+		int[] nodes = myNodes[cluster];
+		int[] costs = new int[nodes.length];
+		for (int k = 0; k < nodes.length; k += 1) {
+			costs[k] = workspace.costOf(nodes[k]);
+		}
+		return costs;
+	}
+
+	// Find the entrances across given cluster's edges, then the cheapest costs between them
+	private void buildCluster (int cluster) {
+		int column = cluster % myNumClusterColumns;
+		// this cluster's side of the entrances on its own edges, and of those on its neighbors' edges
+		int[] nodes = Stream.of(
+				sideOf(myEastCrossings[cluster], 0),
+				sideOf(mySouthCrossings[cluster], 0),
+				(column > 0) ? sideOf(myEastCrossings[cluster - 1], 1) : new int[0],
+				(cluster >= myNumClusterColumns) ? sideOf(mySouthCrossings[cluster - myNumClusterColumns], 1) : new int[0]
+		).flatMapToInt(IntStream::of).sorted().distinct().toArray();
+
+		Workspace workspace = myWorkspace.get();
+		int[] costs = new int[nodes.length * nodes.length];
+		for (int k = 0; k < nodes.length; k += 1) {
+			search(workspace, cluster, nodes[k], -1, false);
+			for (int l = 0; l < nodes.length; l += 1) {
+				costs[k * nodes.length + l] = workspace.costOf(nodes[l]);
+			}
+		}
+		myCosts[cluster] = costs;
+		myNodes[cluster] = nodes;
+	}
+
+	private static int[] sideOf (int[] pairs, int side) {
+		return IntStream.iterate(side, k -> k < pairs.length, k -> k + 2).map(k -> pairs[k]).toArray();
+	}
+
+	// Pairs of facing open spots across given cluster's east edge
+	private int[] findEastCrossings (int cluster) {
+		int left = (cluster % myNumClusterColumns + 1) * myClusterSize - 1;
+		if (left + 1 >= myNumColumns) {
+			return new int[0];
+		}
+		int top = (cluster / myNumClusterColumns) * myClusterSize;
+		int bottom = Math.min(top + myClusterSize, myMaze.getNumRows());
+		return findCrossings(top, bottom, x -> indexOf(x, left), 1);
+	}
+
+	// Pairs of facing open spots across given cluster's south edge
+	private int[] findSouthCrossings (int cluster) {
+		int upper = (cluster / myNumClusterColumns + 1) * myClusterSize - 1;
+		if (upper + 1 >= myMaze.getNumRows()) {
+			return new int[0];
+		}
+		int first = (cluster % myNumClusterColumns) * myClusterSize;
+		int last = Math.min(first + myClusterSize, myNumColumns);
+		return findCrossings(first, last, y -> indexOf(upper, y), myNumColumns);
+	}
+
+	// Entrances along an edge, given each position's spot on this side and the step to the facing spot
+	private int[] findCrossings (int from, int to, IntUnaryOperator spotAt, int across) {
+		List<Integer> crossings = new ArrayList<>();
+		int k = from;
+		while (k < to) {
+			if (! isOpen(spotAt.applyAsInt(k)) || ! isOpen(spotAt.applyAsInt(k) + across)) {
+				k += 1;
+				continue;
+			}
+			int runStart = k;
+			while (k < to && isOpen(spotAt.applyAsInt(k)) && isOpen(spotAt.applyAsInt(k) + across)) {
+				k += 1;
+			}
+			int runEnd = k - 1;
+			if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+				crossings.add(spotAt.applyAsInt(runStart));
+				crossings.add(spotAt.applyAsInt(runEnd));
+			}
+			else {
+				crossings.add(spotAt.applyAsInt((runStart + runEnd) / 2));
+			}
+		}
+		int[] pairs = new int[crossings.size() * 2];
+		for (int p = 0; p < crossings.size(); p += 1) {
+			pairs[2 * p] = crossings.get(p);
+			pairs[2 * p + 1] = crossings.get(p) + across;
+		}
+		return pairs;
+	}
+
+	// Append the cheapest moves from one spot to another of the same cluster without leaving it
+	private void refine (Workspace workspace, int from, int to, Path path) {
+		search(workspace, clusterOf(from), from, to, false);
+		byte[] moves = new byte[workspace.costOf(to) / Terrain.MIN_COST + 1];
+		int count = 0;
+		int spot = to;
+		while (spot != from) {
+			Direction back = Direction.fromCode(workspace.parentOf(spot));
+			if (count == moves.length) {
+				moves = Arrays.copyOf(moves, moves.length * 2);
+			}
+			moves[count++] = (byte)back.reverse().ordinal();
+			spot += back.getDX() * myNumColumns + back.getDY();
+		}
+		for (int k = count - 1; k >= 0; k -= 1) {
+			path.append(Direction.fromCode(moves[k]));
+		}
+	}
+
+	// Dijkstra confined to given cluster from given spot (or, reversed, toward it), stopping early
+	// once the given target is settled, if there is one
+	private void search (Workspace workspace, int cluster, int source, int target, boolean isReversed) {
+		int top = (cluster / myNumClusterColumns) * myClusterSize;
+		int left = (cluster % myNumClusterColumns) * myClusterSize;
+		int bottom = Math.min(top + myClusterSize, myMaze.getNumRows());
+		int right = Math.min(left + myClusterSize, myNumColumns);
+		workspace.reset(top, left, myNumColumns);
+		RadixHeap frontier = workspace.myFrontier;
+		workspace.setCost(source, 0, NO_PARENT);
+		frontier.push(0, source);
+		while (! frontier.isEmpty()) {
+			int cost = frontier.peekKey();
+			int spot = (int)frontier.pop();
+			if (cost > workspace.costOf(spot)) {
+				continue;
+			}
+			if (spot == target) {
+				return;
+			}
+			int x = spot / myNumColumns;
+			int y = spot % myNumColumns;
+			for (Direction d : Direction.values()) {
+				int nx = x + d.getDX();
+				int ny = y + d.getDY();
+				if (top <= nx && nx < bottom && left <= ny && ny < right && myMaze.isInBounds(nx, ny)
+						&& myMaze.getState(nx, ny) != Spot.WALL) {
+					int next = indexOf(nx, ny);
+					// reversed, the move is from the neighbor into this spot
+					int newCost = cost + (isReversed ? myMaze.getCost(x, y) : myMaze.getCost(nx, ny));
+					if (newCost < workspace.costOf(next)) {
+						workspace.setCost(next, newCost, (byte)d.reverse().ordinal());
+						frontier.push(newCost, next);
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isOpen (int spot) {
+		int x = spot / myNumColumns;
+		int y = spot % myNumColumns;
+		return myMaze.isInBounds(x, y) && myMaze.getState(x, y) != Spot.WALL;
+	}
+
+	private int costOf (int spot) {
+		return myMaze.getCost(spot / myNumColumns, spot % myNumColumns);
+	}
+
+	private int estimate (int spot, int goal) {
+		return Terrain.MIN_COST * (Math.abs(spot / myNumColumns - goal / myNumColumns)
+				+ Math.abs(spot % myNumColumns - goal % myNumColumns));
+	}
+
+	private Direction directionOf (int from, int to) {
+		for (Direction d : Direction.values()) {
+			if (from + d.getDX() * myNumColumns + d.getDY() == to) {
+				return d;
+			}
+		}
+		throw new IllegalStateException("spots are not neighbors");
+	}
+
+	private int clusterOf (int spot) {
+		return (spot / myNumColumns / myClusterSize) * myNumClusterColumns + (spot % myNumColumns) / myClusterSize;
+	}
+
+	private int indexOf (int x, int y) {
+		return x * myNumColumns + y;
+	}
+
+
+	/**
+	 * Cost and parent of each node reached by one query's A* over the abstract graph, kept
+	 * cluster by cluster alongside the nodes, plus those of the start and goal if they are not nodes.
+	 */
+	private class AbstractSearch {
+		private final int myStart;
+		private final int myGoal;
+		private final int[][] myNodeCosts = new int[myNodes.length][];
+		private final int[][] myNodeParents = new int[myNodes.length][];
+		private final RadixHeap myFrontier = new RadixHeap();
+		private int myStartCost = UNREACHED;
+		private int myGoalCost = UNREACHED;
+		private int myGoalParent = NO_SPOT;
+
+		AbstractSearch (int start, int goal) {
+			myStart = start;
+			myGoal = goal;
+		}
+
+		void relax (int from, int to, int cost, int step) {
+			if (step == UNREACHED || from == to) {
+				return;
+			}
+			int newCost = cost + step;
+			if (newCost < costOf(to)) {
+				setCost(to, newCost, from);
+				myFrontier.push(newCost + estimate(to, myGoal), to);
+			}
+		}
+
+		int costOf (int spot) {
+			int cluster = clusterOf(spot);
+			int k = Arrays.binarySearch(myNodes[cluster], spot);
+			if (k >= 0) {
+				return (myNodeCosts[cluster] == null) ? UNREACHED : myNodeCosts[cluster][k];
+			}
+			return (spot == myStart) ? myStartCost : myGoalCost;
+		}
+
+		void setCost (int spot, int cost, int parent) {
+			int cluster = clusterOf(spot);
+			int k = Arrays.binarySearch(myNodes[cluster], spot);
+			if (k >= 0) {
+				if (myNodeCosts[cluster] == null) {
+					myNodeCosts[cluster] = new int[myNodes[cluster].length];
+					Arrays.fill(myNodeCosts[cluster], UNREACHED);
+					myNodeParents[cluster] = new int[myNodes[cluster].length];
+				}
+				myNodeCosts[cluster][k] = cost;
+				myNodeParents[cluster][k] = parent;
+			}
+			else if (spot == myStart) {
+				myStartCost = cost;
+			}
+			else {
+				myGoalCost = cost;
+				myGoalParent = parent;
+			}
+		}
+
+		int parentOf (int spot) {
+			int cluster = clusterOf(spot);
+			int k = Arrays.binarySearch(myNodes[cluster], spot);
+			if (k >= 0) {
+				return myNodeParents[cluster][k];
+			}
+			return (spot == myStart) ? NO_SPOT : myGoalParent;
+		}
+
+		int[] pathTo (int spot) {
+			List<Integer> spots = new ArrayList<>();
+			for (; spot != NO_SPOT; spot = parentOf(spot)) {
+				spots.add(spot);
+			}
+			int[] path = new int[spots.size()];
+			for (int k = 0; k < path.length; k += 1) {
+				path[k] = spots.get(path.length - 1 - k);
+			}
+			return path;
+		}
+	}
+
+
+	/**
+	 * Costs and directions back for a search confined to one cluster, indexed from its top-left spot.
+	 */
+	private static class Workspace {
+		private final int mySize;
+		private final int[] myCosts;
+		private final byte[] myParents;
+		private final RadixHeap myFrontier = new RadixHeap();
+		private int myTop;
+		private int myLeft;
+		private int myNumColumns;
+
+		Workspace (int size) {
+			mySize = size;
+			myCosts = new int[size * size];
+			myParents = new byte[size * size];
+		}
+
+		void reset (int top, int left, int numColumns) {
+			myTop = top;
+			myLeft = left;
+			myNumColumns = numColumns;
+			Arrays.fill(myCosts, UNREACHED);
+			myFrontier.clear();
+		}
+
+		int costOf (int spot) {
+			return myCosts[localIndex(spot)];
+		}
+
+		int parentOf (int spot) {
+			return myParents[localIndex(spot)];
+		}
+
+		void setCost (int spot, int cost, byte parent) {
+			myCosts[localIndex(spot)] = cost;
+			myParents[localIndex(spot)] = parent;
+		}
+
+		private int localIndex (int spot) {
+			return (spot / myNumColumns - myTop) * mySize + spot % myNumColumns - myLeft;
+		}
+	}
+}
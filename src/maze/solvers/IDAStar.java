@@ -0,0 +1,237 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.Arrays;
+
+
+/**
+ * This class represents an Iterative-Deepening A* maze search algorithm.
+ *
+ * It runs a series of depth-first searches, each cut off at spots whose cost so far plus
+ * the Manhattan distance to the goal exceeds a threshold; each new search raises the
+ * threshold to the smallest estimate that was cut off in the one before. It finds the
+ * cheapest path (taking terrain costs into account) while only ever remembering the
+ * current path: its memory grows with the length of the path rather than the size of
+ * the maze, at the cost of exploring the same spots again in each search.
+ *
+ * @author Wei Wu
+ */
+public class IDAStar extends SearchAlgorithm {
+	public static final String TITLE = "Iterative-Deepening A*";
+	private static final int INFINITY = Integer.MAX_VALUE;
+	private static final int INITIAL_DEPTH = 64;
+	private static final int NUM_DIRECTIONS = Direction.values().length;
+	// bytes kept for each spot on the current path: spot, cost so far, next direction to try
+	private static final int BYTES_PER_DEPTH = 2 * Integer.BYTES + 1;
+
+	// current path, kept as a stack of spot indices with their costs and next directions to try
+	private int[] myPath;
+	private int[] myCosts;
+	private byte[] myNextDirections;
+	private int myDepth;
+	// spots on the current path (plus one, so zero is an empty slot), hashed into a table twice
+	// the size of the stack, so the search never loops back onto itself
+	private int[] myOnPath;
+	private final int myNumColumns;
+	private int myThreshold;
+	private int myNextThreshold;
+	private int myMaxDepth;
+	private int myNumIterations;
+	private boolean isFound;
+	private boolean isExhausted;
+
+	public IDAStar (Maze maze) {
+		// spots on the path are numbered with an int
+		super(TITLE, intSized(maze, TITLE));
+		myNumColumns = maze.getNumColumns();
+		myPath = new int[INITIAL_DEPTH];
+		myCosts = new int[INITIAL_DEPTH];
+		myNextDirections = new byte[INITIAL_DEPTH];
+		myOnPath = new int[2 * INITIAL_DEPTH];
+		begin();
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		// color successful path found
+		if (isSearchOver()) {
+			if (isFound) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+
+		// this search is done: start another with a higher threshold, if any spot was cut off
+		if (myDepth == 0) {
+			if (myNextThreshold == INFINITY) {
+				isExhausted = true;
+				return false;
+			}
+			myThreshold = myNextThreshold;
+			myNextThreshold = INFINITY;
+			myNumIterations += 1;
+			getMyMaze().resetMaze();
+			setMyCurrent(getMyMaze().getStart());
+			getMyCurrent().markAsPath();
+			push(indexOf(getMyMaze().getStart().getX(), getMyMaze().getStart().getY()), 0);
+			return false;
+		}
+
+		// extend the path to the next neighbor within the threshold, or back up if there is none
+		int top = myDepth - 1;
+		int x = myPath[top] / myNumColumns;
+		int y = myPath[top] % myNumColumns;
+		while (myNextDirections[top] < NUM_DIRECTIONS) {
+			Direction d = Direction.fromCode(myNextDirections[top]);
+			myNextDirections[top] += 1;
+			int nx = x + d.getDX();
+			int ny = y + d.getDY();
+			if (getMyMaze().isInBounds(nx, ny) && getMyMaze().getState(nx, ny) != Spot.WALL
+					&& ! isOnPath(indexOf(nx, ny))) {
+				int cost = myCosts[top] + getMyMaze().getCost(nx, ny);
+				int estimate = cost + estimate(nx, ny);
+				if (estimate > myThreshold) {
+					myNextThreshold = Math.min(myNextThreshold, estimate);
+				}
+				else {
+					push(indexOf(nx, ny), cost);
+					setMyCurrent(getMyMaze().getSpot(nx, ny));
+					getMyCurrent().markAsPath();
+					isFound = findTheGoal();
+					return false;
+				}
+			}
+		}
+		getMyMaze().getSpot(x, y).markAsVisited();
+		myOnPath[slotOf(myPath[top])] = 0;
+		myDepth -= 1;
+		if (myDepth > 0) {
+			setMyCurrent(getMyMaze().getSpot(myPath[myDepth - 1] / myNumColumns, myPath[myDepth - 1] % myNumColumns));
+		}
+		return false;
+	}
+
+	/**
+	 * Returns total cost of the cheapest path from start to goal, or -1 if it has not been found.
+	 */
+	public int getCost () {
+		return isFound ? myCosts[myDepth - 1] : -1;
+	}
+
+	/**
+	 * Returns number of times the search has started over with a higher threshold.
+	 */
+	public int getNumOfIterations () {
+		return myNumIterations;
+	}
+
+	// Largest number of spots on the path at once
+	@Override
+	public int getMaxSize () {
+		return myMaxDepth;
+	}
+
+	// Its own stack and bound are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	// Its own stack is emptied in place, keeping however deep it has grown
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		Arrays.fill(myOnPath, 0);
+		myDepth = 0;
+		myMaxDepth = 0;
+		myNumIterations = 0;
+		isExhausted = false;
+		begin();
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return (long)myMaxDepth * BYTES_PER_DEPTH + (long)myOnPath.length * Integer.BYTES;
+	}
+
+	// Search is over once the goal is on the path or no spot was cut off in the last search
+	@Override
+	protected boolean isSearchOver () {
+		return isFound || isExhausted;
+	}
+
+	// The path to the goal is exactly what is on the stack
+	@Override
+	protected void markPath () {
+		for (int k = myDepth - 1; k >= 0; k -= 1) {
+			Spot step = getMyMaze().getSpot(myPath[k] / myNumColumns, myPath[k] % myNumColumns);
+			step.markAsPath();
+			if (k > 0) {
+				getMyPaths().put(step, getMyMaze().getSpot(myPath[k - 1] / myNumColumns, myPath[k - 1] % myNumColumns));
+			}
+		}
+	}
+
+	private void push (int index, int cost) {
+		if (myDepth == myPath.length) {
+			myPath = Arrays.copyOf(myPath, myDepth * 2);
+			myCosts = Arrays.copyOf(myCosts, myDepth * 2);
+			myNextDirections = Arrays.copyOf(myNextDirections, myDepth * 2);
+			myOnPath = new int[myPath.length * 2];
+			for (int k = 0; k < myDepth; k += 1) {
+				myOnPath[slotOf(myPath[k])] = myPath[k] + 1;
+			}
+		}
+		myPath[myDepth] = index;
+		myCosts[myDepth] = cost;
+		myNextDirections[myDepth] = 0;
+		myOnPath[slotOf(index)] = index + 1;
+		myDepth += 1;
+		myMaxDepth = Math.max(myMaxDepth, myDepth);
+	}
+
+	// First search, bounded by the start's own estimate
+	private void begin () {
+		myThreshold = estimate(getMyCurrent().getX(), getMyCurrent().getY());
+		myNextThreshold = INFINITY;
+		push(indexOf(getMyCurrent().getX(), getMyCurrent().getY()), 0);
+		isFound = findTheGoal();
+	}
+
+	private boolean isOnPath (int index) {
+		return myOnPath[slotOf(index)] == index + 1;
+	}
+
+	// Returns slot holding the given spot, or the empty slot where it belongs. Linear probing
+	// needs no tombstones here: spots leave the table in the reverse of the order they entered,
+	// so no spot still in the table ever probed past one that has left.
+	private int slotOf (int index) {
+		int mask = myOnPath.length - 1;
+		int slot = (index * 0x9E3779B1) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(myOnPath.length));
+		while (myOnPath[slot] != 0 && myOnPath[slot] != index + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int estimate (int x, int y) {
+		Spot goal = getMyMaze().getGoal();
+		return Math.abs(goal.getX() - x) + Math.abs(goal.getY() - y);
+	}
+
+	private int indexOf (int x, int y) {
+		return x * myNumColumns + y;
+	}
+}
@@ -0,0 +1,263 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+import maze.util.RadixHeap;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * This class represents a Jump Point Search of a maze: an A* search (with the Manhattan
+ * distance to the goal as its estimate) that skips over straight runs of halls.
+ *
+ * Rather than putting every neighbor on the frontier, each move jumps in a straight line
+ * until it reaches a spot where the path might have to turn:
+ *   moving north or south, any spot with an open hall to its east or west;
+ *   moving east or west, any spot with an open hall north or south that was blocked
+ *   for the spot before it (a "forced" neighbor).
+ * Only these jump points go on the frontier. Since every move costs the same, the
+ * straight runs skipped over can never shorten a path, so the path found is still
+ * a shortest one; terrain costs are ignored.
+ *
+ * @author Wei Wu
+ */
+public class JumpPointSearch extends SearchAlgorithm {
+	public static final String TITLE = "Jump Point Search";
+	private static final int UNREACHED = Integer.MAX_VALUE;
+	private static final int NO_PARENT = -1;
+
+	// data structure used to keep search frontier -- use a radix heap, since A*'s estimates never decrease
+	private final RadixHeap myFrontier;
+	// length of shortest path found so far from the start to each spot
+	private final int[] myCosts;
+	// jump point each spot was reached from
+	private final int[] myParents;
+	// jump points already expanded
+	private final BitSet myClosed;
+	private final int myNumColumns;
+	private final int myGoalX;
+	private final int myGoalY;
+	private int myMaxSize;
+	private long myNumScanned;
+	private boolean isFound;
+
+	public JumpPointSearch (Maze maze) {
+		super(TITLE, intSized(maze, TITLE));
+		myNumColumns = maze.getNumColumns();
+		int size = Maze.getIntSize(maze.getNumRows(), myNumColumns, TITLE);
+		myCosts = new int[size];
+		myParents = new int[size];
+		myClosed = new BitSet(size);
+		myFrontier = new RadixHeap();
+		myGoalX = maze.getGoal().getX();
+		myGoalY = maze.getGoal().getY();
+		begin();
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		// color successful path found
+		if (isSearchOver()) {
+			if (isFound) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+		myMaxSize = Math.max(myMaxSize, myFrontier.size());
+
+		int index = (int)myFrontier.pop();
+		if (myClosed.get(index)) {
+			return false;
+		}
+		myClosed.set(index);
+		int x = index / myNumColumns;
+		int y = index % myNumColumns;
+		setMyCurrent(getMyMaze().getSpot(x, y));
+		if (x == myGoalX && y == myGoalY) {
+			isFound = true;
+			return false;
+		}
+		getMyCurrent().markAsVisited();
+
+		// only directions that could still lead somewhere new
+		int parent = myParents[index];
+		for (Direction d : Direction.values()) {
+			if (isWorthJumping(parent, x, y, d)) {
+				int next = jump(x, y, d);
+				if (next != NO_PARENT) {
+					addJumpPoint(index, next);
+				}
+			}
+		}
+		return false;
+	}
+
+	// Its own costs, parents and heap are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	// Its own costs, parents, closed set and heap are cleared in place
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		begin();
+	}
+
+	/**
+	 * Returns length of the shortest path from start to goal, or -1 if it has not been found.
+	 */
+	public int getDistance () {
+		return isFound ? myCosts[indexOf(myGoalX, myGoalY)] : -1;
+	}
+
+	/**
+	 * Returns number of spots looked at while jumping, including those never put on the frontier.
+	 */
+	public long getNumScanned () {
+		return myNumScanned;
+	}
+
+	@Override
+	public int getMaxSize () {
+		return myMaxSize;
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return (long)myCosts.length * 2 * Integer.BYTES + myClosed.size() / Byte.SIZE
+				+ (long)myMaxSize * (Integer.BYTES + Long.BYTES);
+	}
+
+	// Search is over once the goal is expanded or there is nothing left to expand
+	@Override
+	protected boolean isSearchOver () {
+		return isFound || myFrontier.isEmpty();
+	}
+
+	// Recover the path by walking back through the jump points, filling in the straight runs between them
+	@Override
+	protected void markPath () {
+		int index = indexOf(myGoalX, myGoalY);
+		Spot step = getMyMaze().getSpot(myGoalX, myGoalY);
+		step.markAsPath();
+		while (myParents[index] != NO_PARENT) {
+			int parent = myParents[index];
+			Spot target = getMyMaze().getSpot(parent / myNumColumns, parent % myNumColumns);
+			Direction back = directionOf(index, parent);
+			while (! step.equals(target)) {
+				Spot previous = getMyMaze().getNeighbor(step, back);
+				previous.markAsPath();
+				getMyPaths().put(step, previous);
+				step = previous;
+			}
+			index = parent;
+		}
+	}
+
+	// From a spot reached from the given parent, decide whether jumping in the given direction is needed
+	private boolean isWorthJumping (int parent, int x, int y, Direction d) {
+		if (parent == NO_PARENT) {
+			return true;
+		}
+		Direction arrival = directionOf(parent, indexOf(x, y));
+		if (d == arrival.reverse()) {
+			return false;
+		}
+		if (arrival.getDX() != 0) {
+			// arrived moving north or south: keep going, or turn east or west
+			return true;
+		}
+		// arrived moving east or west: keep going, or turn only toward a forced neighbor
+		return d == arrival || (isOpen(x + d.getDX(), y) && ! isOpen(x + d.getDX(), y - arrival.getDY()));
+	}
+
+	// Move from the given spot in the given direction until reaching a jump point, returning it (or NO_PARENT)
+	private int jump (int x, int y, Direction d) {
+		int dx = d.getDX();
+		int dy = d.getDY();
+		while (true) {
+			x += dx;
+			y += dy;
+			myNumScanned += 1;
+			if (! isOpen(x, y)) {
+				return NO_PARENT;
+			}
+			if (x == myGoalX && y == myGoalY) {
+				return indexOf(x, y);
+			}
+			if (dx != 0) {
+				if (isOpen(x, y - 1) || isOpen(x, y + 1)) {
+					return indexOf(x, y);
+				}
+			}
+			else if ((isOpen(x - 1, y) && ! isOpen(x - 1, y - dy)) || (isOpen(x + 1, y) && ! isOpen(x + 1, y - dy))) {
+				return indexOf(x, y);
+			}
+		}
+	}
+
+	// Put given jump point on the frontier if this is the shortest way found to it
+	private void addJumpPoint (int from, int to) {
+		int cost = myCosts[from] + Math.abs(from / myNumColumns - to / myNumColumns)
+				+ Math.abs(from % myNumColumns - to % myNumColumns);
+		if (cost < myCosts[to]) {
+			myCosts[to] = cost;
+			myParents[to] = from;
+			myFrontier.push(cost + estimate(to / myNumColumns, to % myNumColumns), to);
+			getMyMaze().getSpot(to / myNumColumns, to % myNumColumns).markAsPath();
+		}
+	}
+
+	// Returns direction of the straight line from one spot to another
+	private Direction directionOf (int from, int to) {
+		int dx = Integer.signum(to / myNumColumns - from / myNumColumns);
+		int dy = Integer.signum(to % myNumColumns - from % myNumColumns);
+		for (Direction d : Direction.values()) {
+			if (d.getDX() == dx && d.getDY() == dy) {
+				return d;
+			}
+		}
+		return null;
+	}
+
+	private boolean isOpen (int x, int y) {
+		return getMyMaze().isInBounds(x, y) && getMyMaze().getState(x, y) != Spot.WALL;
+	}
+
+	// Every spot unreached but the start
+	private void begin () {
+		Arrays.fill(myCosts, UNREACHED);
+		Arrays.fill(myParents, NO_PARENT);
+		myClosed.clear();
+		myFrontier.clear();
+		myMaxSize = 0;
+		myNumScanned = 0;
+		isFound = false;
+		Spot start = getMyCurrent();
+		int index = indexOf(start.getX(), start.getY());
+		myCosts[index] = 0;
+		myFrontier.push(estimate(start.getX(), start.getY()), index);
+	}
+
+	private int estimate (int x, int y) {
+		return Math.abs(myGoalX - x) + Math.abs(myGoalY - y);
+	}
+
+	private int indexOf (int x, int y) {
+		return x * myNumColumns + y;
+	}
+}
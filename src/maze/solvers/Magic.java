@@ -6,6 +6,7 @@ import maze.util.Randomness;
 
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Random;
 
 
 /**
@@ -18,9 +19,20 @@ public class Magic extends SearchAlgorithm {
 
 	// data structure used to keep search frontier -- use a priority queue
 	private PriorityQueue<Spot> myFrontier;
+	// source of every random choice the search makes
+	private final Random myRandom;
 
 	public Magic (Maze maze) {
+		this(maze, Randomness.ourRandom);
+	}
+
+	/**
+	 * Create a search that makes its random choices using the given source of randomness,
+	 * so that it can be repeated.
+	 */
+	public Magic (Maze maze, Random random) {
 		super(TITLE, maze);
+		myRandom = random;
 
 		myFrontier = new PriorityQueue<>();
 
@@ -45,7 +57,7 @@ public class Magic extends SearchAlgorithm {
 		setMyNeighbors(getListNeighbors());
 
 		// choose next spot to explore -- magic means next spot could be a wall!
-		Spot next = Randomness.getRandomElement(getMyNeighbors());
+		Spot next = Randomness.getRandomElement(getMyNeighbors(), myRandom);
 		chooseNextSpot(myFrontier, next);
 
 		// update current spot
@@ -6,6 +6,7 @@ import maze.util.Randomness;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 
 /**
@@ -17,8 +18,20 @@ public class RandomWalk extends SearchAlgorithm {
 	public static final String TITLE = "Random Walk";
 	public final double EXPLORE_BIAS = 0.999;
 
+	// source of every random choice the walk makes
+	private final Random myRandom;
+
 	public RandomWalk (Maze maze) {
+		this(maze, Randomness.ourRandom);
+	}
+
+	/**
+	 * Create a walk that makes its random choices using the given source of randomness,
+	 * so that it can be repeated.
+	 */
+	public RandomWalk (Maze maze, Random random) {
 		super(TITLE, maze);
+		myRandom = random;
 	}
 
 	/**
@@ -51,13 +64,13 @@ public class RandomWalk extends SearchAlgorithm {
 	private Spot randomNextStep(List<Spot> empties, List<Spot> possibles) {
 		Spot next;
 		// prefer exploring empty paths over visited ones
-		if (! empties.isEmpty() && Randomness.isRandomEnough(EXPLORE_BIAS)) {
-			next = Randomness.getRandomElement(empties);
+		if (! empties.isEmpty() && Randomness.isRandomEnough(EXPLORE_BIAS, myRandom)) {
+			next = Randomness.getRandomElement(empties, myRandom);
 		}
 
 		// guaranteed to be at least one possible, even if it is last spot visited
 		else {
-			next = Randomness.getRandomElement(possibles);
+			next = Randomness.getRandomElement(possibles, myRandom);
 		}
 
 		// mark next step
@@ -0,0 +1,389 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+
+/**
+ * This class represents a simplified Memory-Bounded A* maze search algorithm.
+ *
+ * Like A*, it always expands the open node with the lowest estimate (cost so far plus
+ * Manhattan distance to the goal, never less than its parent's estimate), but it never
+ * holds more than a fixed budget of nodes. When the budget is full, the open leaf with
+ * the highest estimate is forgotten and its estimate is backed up into its parent; once
+ * all of a parent's children have been forgotten or found to be dead ends, the parent
+ * is reopened with the best estimate among them, so that branch can be regenerated if it
+ * becomes the most promising again. A node as deep as the budget is treated as a dead end.
+ *
+ * As in A*, the search ends when the goal is taken from the open set, not when it is first
+ * reached, since no open node could then lead to it more cheaply. A spot is never held by
+ * a node that costs no less than one already held for it, and a node taken from the open
+ * set after a cheaper one for its spot was generated is dropped, so on mazes with loops
+ * the many ways round each loop do not crowd out the budget.
+ *
+ * Compared with full SMA*, a parent is only reopened once all its children are gone, so
+ * the path found is not guaranteed to be the cheapest when the budget is tight, and a
+ * very tight budget may thrash for a long time; with a budget large enough for A*, the
+ * path found is the cheapest.
+ *
+ * @author Wei Wu
+ */
+public class SMAStar extends SearchAlgorithm {
+	public static final String TITLE = "Memory-Bounded A*";
+	public static final int DEFAULT_BUDGET = 1 << 16;
+	private static final int INFINITY = Integer.MAX_VALUE;
+	private static final int NONE = -1;
+	// bytes kept for each node: spot, parent, cost, estimate, children, forgotten estimate, depth
+	private static final int BYTES_PER_NODE = 7 * Integer.BYTES;
+	// bytes of the table of cheapest nodes, at most half full, for each node
+	private static final int HELD_BYTES_PER_NODE = 4 * Integer.BYTES;
+	// rough heap cost of one entry in the open set (a tree node holding a boxed key)
+	private static final int OPEN_ENTRY_BYTES = 56;
+
+	// node pool, each node an index into these arrays
+	private final int myBudget;
+	private final int[] mySpots;
+	private final int[] myParents;
+	private final int[] myCosts;
+	private final int[] myEstimates;
+	private final int[] myNumChildren;
+	private final int[] myForgotten;
+	private final int[] myDepths;
+	// unused nodes in the pool
+	private final int[] myFree;
+	private int myNumFree;
+	// cheapest node held for each spot, as node + 1 in a hash table keyed by spot (0 is empty)
+	private final int[] myHeld;
+	// data structure used to keep search frontier -- open nodes ordered by estimate, then node
+	private final TreeSet<Long> myOpen;
+	private final int myNumColumns;
+	private int myMaxSize;
+	private int myGoalNode;
+	private boolean isExhausted;
+
+
+	/**
+	 * Create a search limited to DEFAULT_BUDGET nodes.
+	 */
+	public SMAStar (Maze maze) {
+		this(maze, DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Create a search that never holds more than the given number of nodes.
+	 */
+	public SMAStar (Maze maze, int budget) {
+		// spots held by nodes are numbered with an int
+		super(TITLE, intSized(maze, TITLE));
+		// simple error checking, we will see better ways in the future
+		assert(budget >= 2);
+		myBudget = budget;
+		mySpots = new int[budget];
+		myParents = new int[budget];
+		myCosts = new int[budget];
+		myEstimates = new int[budget];
+		myNumChildren = new int[budget];
+		myForgotten = new int[budget];
+		myDepths = new int[budget];
+		myFree = new int[budget];
+		myHeld = new int[Integer.highestOneBit(2 * budget - 1) << 1];
+		myOpen = new TreeSet<>();
+		myNumColumns = maze.getNumColumns();
+		begin();
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		// color successful path found
+		if (isSearchOver()) {
+			if (myGoalNode != NONE) {
+				markPath();
+			}
+			return true;
+		}
+
+		recordSteps();
+
+		// expand the most promising open node
+		int node = (int)(long)myOpen.pollFirst();
+		if (myEstimates[node] == INFINITY) {
+			isExhausted = true;
+			return false;
+		}
+		int x = mySpots[node] / myNumColumns;
+		int y = mySpots[node] % myNumColumns;
+		setMyCurrent(getMyMaze().getSpot(x, y));
+		if (findTheGoal()) {
+			// no open node can lead anywhere cheaper, since none has a lower estimate
+			myGoalNode = node;
+			return false;
+		}
+		int held = heldNode(mySpots[node]);
+		if (held != NONE && myCosts[held] < myCosts[node]) {
+			// a cheaper way to this spot is already held, so this one is a dead end
+			myEstimates[node] = INFINITY;
+			removeLeaf(node);
+			return false;
+		}
+		getMyCurrent().markAsVisited();
+		myForgotten[node] = INFINITY;
+
+		for (Direction d : Direction.values()) {
+			int nx = x + d.getDX();
+			int ny = y + d.getDY();
+			if (getMyMaze().isInBounds(nx, ny) && getMyMaze().getState(nx, ny) != Spot.WALL
+					&& ! isAncestor(node, indexOf(nx, ny))) {
+				int cost = myCosts[node] + getMyMaze().getCost(nx, ny);
+				held = heldNode(indexOf(nx, ny));
+				if (held != NONE && myCosts[held] <= cost) {
+					// no cheaper than a way to the same spot already held
+					continue;
+				}
+				int estimate = Math.max(myEstimates[node], cost + estimate(nx, ny));
+				boolean isGoal = nx == getMyMaze().getGoal().getX() && ny == getMyMaze().getGoal().getY();
+				if (! isGoal && myDepths[node] + 1 >= myBudget - 1) {
+					// too deep to ever finish within the budget
+					estimate = INFINITY;
+				}
+				if (myNumFree == 0 && ! forgetWorst(node, estimate)) {
+					// keeping this child would mean forgetting something more promising
+					myForgotten[node] = Math.min(myForgotten[node], estimate);
+					continue;
+				}
+				int child = allocate(indexOf(nx, ny), node, cost, estimate);
+				myNumChildren[node] += 1;
+				getMyMaze().getSpot(nx, ny).markAsPath();
+				open(child);
+			}
+		}
+		if (myNumChildren[node] == 0) {
+			backUp(node);
+		}
+		myMaxSize = Math.max(myMaxSize, myBudget - myNumFree);
+		return false;
+	}
+
+	/**
+	 * Returns total cost of the path found from start to goal, or -1 if it has not been found.
+	 */
+	public int getCost () {
+		return (myGoalNode == NONE) ? -1 : myCosts[myGoalNode];
+	}
+
+	/**
+	 * Returns largest number of nodes this search may hold at once.
+	 */
+	public int getBudget () {
+		return myBudget;
+	}
+
+	// Largest number of nodes held at once
+	@Override
+	public int getMaxSize () {
+		return myMaxSize;
+	}
+
+	// Its own node pool and open set are not captured by a snapshot
+	@Override
+	public boolean canSnapshot () {
+		return false;
+	}
+
+	// Its own node pool is emptied in place
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myOpen.clear();
+		myMaxSize = 0;
+		isExhausted = false;
+		begin();
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return (long)myBudget * (BYTES_PER_NODE + Integer.BYTES + HELD_BYTES_PER_NODE) + (long)myMaxSize * OPEN_ENTRY_BYTES;
+	}
+
+	// Search is over once the goal is expanded or every branch has turned out to be hopeless
+	@Override
+	protected boolean isSearchOver () {
+		return myGoalNode != NONE || isExhausted || myOpen.isEmpty();
+	}
+
+	// The path to the goal is the goal node's chain of parents
+	@Override
+	protected void markPath () {
+		int node = myGoalNode;
+		while (node != NONE) {
+			Spot step = getMyMaze().getSpot(mySpots[node] / myNumColumns, mySpots[node] % myNumColumns);
+			step.markAsPath();
+			if (myParents[node] != NONE) {
+				int parent = myParents[node];
+				getMyPaths().put(step, getMyMaze().getSpot(mySpots[parent] / myNumColumns, mySpots[parent] % myNumColumns));
+			}
+			node = myParents[node];
+		}
+	}
+
+	// Forget the open leaf with the highest estimate, other than a sibling, to make room for a child of
+	// the given node, unless that leaf is more promising than the child; return true if room was made
+	private boolean forgetWorst (int expanding, int estimate) {
+		for (Long key : (Iterable<Long>)myOpen::descendingIterator) {
+			int node = (int)(long)key;
+			if (myEstimates[node] < estimate) {
+				return false;
+			}
+			if (myParents[node] != expanding) {
+				myOpen.remove(key);
+				getMyMaze().getSpot(mySpots[node] / myNumColumns, mySpots[node] % myNumColumns).markAsEmpty();
+				removeLeaf(node);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// A node with no children left is reopened with the best estimate among them, or dropped if there is none
+	private void backUp (int node) {
+		if (myForgotten[node] == INFINITY && myParents[node] != NONE) {
+			// a dead end: nothing below it is worth coming back for
+			myEstimates[node] = INFINITY;
+			removeLeaf(node);
+		}
+		else {
+			myEstimates[node] = myForgotten[node];
+			open(node);
+		}
+	}
+
+	// Remove given leaf from the pool, backing its estimate up into its parent, and so on up the tree
+	// for as long as that leaves a parent with no children and nothing worth reopening it for
+	private void removeLeaf (int node) {
+		while (true) {
+			int parent = myParents[node];
+			int estimate = myEstimates[node];
+			release(node);
+			if (parent == NONE) {
+				return;
+			}
+			myForgotten[parent] = Math.min(myForgotten[parent], estimate);
+			myNumChildren[parent] -= 1;
+			if (myNumChildren[parent] > 0) {
+				return;
+			}
+			if (myForgotten[parent] != INFINITY || myParents[parent] == NONE) {
+				myEstimates[parent] = myForgotten[parent];
+				open(parent);
+				return;
+			}
+			// every child was a dead end, so the parent is one too
+			myEstimates[parent] = INFINITY;
+			node = parent;
+		}
+	}
+
+	private boolean isAncestor (int node, int spot) {
+		while (node != NONE) {
+			if (mySpots[node] == spot) {
+				return true;
+			}
+			node = myParents[node];
+		}
+		return false;
+	}
+
+	// Every node free but the root, at the start
+	private void begin () {
+		for (int k = 0; k < myBudget; k += 1) {
+			myFree[k] = myBudget - 1 - k;
+		}
+		myNumFree = myBudget;
+		Arrays.fill(myHeld, 0);
+		myGoalNode = NONE;
+		Spot start = getMyCurrent();
+		int root = allocate(indexOf(start.getX(), start.getY()), NONE, 0, estimate(start.getX(), start.getY()));
+		open(root);
+		if (findTheGoal()) {
+			myGoalNode = root;
+		}
+	}
+
+	private int allocate (int spot, int parent, int cost, int estimate) {
+		int node = myFree[--myNumFree];
+		mySpots[node] = spot;
+		myParents[node] = parent;
+		myCosts[node] = cost;
+		myEstimates[node] = estimate;
+		myNumChildren[node] = 0;
+		myForgotten[node] = INFINITY;
+		myDepths[node] = (parent == NONE) ? 0 : myDepths[parent] + 1;
+		int slot = slotOf(spot);
+		if (myHeld[slot] == 0 || myCosts[myHeld[slot] - 1] > cost) {
+			myHeld[slot] = node + 1;
+		}
+		return node;
+	}
+
+	private void release (int node) {
+		myFree[myNumFree++] = node;
+		int slot = slotOf(mySpots[node]);
+		if (myHeld[slot] == node + 1) {
+			removeHeld(slot);
+		}
+	}
+
+	// Returns cheapest node held for the given spot, or NONE if there is none
+	private int heldNode (int spot) {
+		return myHeld[slotOf(spot)] - 1;
+	}
+
+	// Returns slot holding the given spot, or the empty slot where it belongs
+	private int slotOf (int spot) {
+		int mask = myHeld.length - 1;
+		int slot = (spot * 0x9E3779B1) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(myHeld.length));
+		while (myHeld[slot] != 0 && mySpots[myHeld[slot] - 1] != spot) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	// Empty the given slot, moving back any later entry that probed past it so it can still be found
+	private void removeHeld (int slot) {
+		int mask = myHeld.length - 1;
+		int next = (slot + 1) & mask;
+		while (myHeld[next] != 0) {
+			int home = (mySpots[myHeld[next] - 1] * 0x9E3779B1) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(myHeld.length));
+			// entry may move back only if its home is not between the hole and where it is now
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				myHeld[slot] = myHeld[next];
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+		myHeld[slot] = 0;
+	}
+
+	private void open (int node) {
+		myOpen.add(((long)myEstimates[node] << Integer.SIZE) | node);
+	}
+
+	private int estimate (int x, int y) {
+		Spot goal = getMyMaze().getGoal();
+		return Math.abs(goal.getX() - x) + Math.abs(goal.getY() - y);
+	}
+
+	private int indexOf (int x, int y) {
+		return x * myNumColumns + y;
+	}
+}
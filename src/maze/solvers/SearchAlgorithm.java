@@ -2,6 +2,7 @@ package maze.solvers;
 
 
 import maze.model.Maze;
+import maze.model.Path;
 import maze.model.Spot;
 
 import java.util.*;
@@ -12,6 +13,10 @@ import java.util.*;
  * @author Wei Wu
  */
 public abstract class SearchAlgorithm {
+	// rough heap cost of one entry in a frontier collection (a linked list node or array slot plus its header)
+	public static final int FRONTIER_ENTRY_BYTES = 24;
+	// rough heap cost of one entry in the trail of paths (a hash map node plus its table slot)
+	public static final int PATH_ENTRY_BYTES = 40;
 
 	// number of steps taken
 	private int numOfSteps;
@@ -125,6 +130,61 @@ public abstract class SearchAlgorithm {
 		}
 	}
 
+	/**
+	 * Returns the path found from start to goal, or null if the goal has not been found.
+	 *
+	 * The path is recovered from the trail of paths or, for algorithms that keep no trail,
+	 * from the spots marked as the path; it is also null if neither leads back to the start
+	 * (as for a random walk, which does not remember how it got where it is).
+	 */
+	public Path getPath () {
+		if (! findTheGoal()) {
+			return null;
+		}
+		Spot start = myMaze.getStart();
+		List<Spot> steps = new ArrayList<>();
+		Spot step = myMaze.getGoal();
+		// a trail longer than the map itself must go round in circles
+		while (step != null && steps.size() <= myPaths.size()) {
+			steps.add(step);
+			if (step.equals(start)) {
+				Collections.reverse(steps);
+				return Path.of(steps);
+			}
+			step = myPaths.get(step);
+		}
+		return searchMarkedPath();
+	}
+
+	// Breadth-first search from start to goal through spots marked as the path, or null if there is none
+	private Path searchMarkedPath () {
+		Spot start = myMaze.getStart();
+		Spot goal = myMaze.getGoal();
+		Map<Spot, Spot> previous = new HashMap<>();
+		Queue<Spot> frontier = new ArrayDeque<>();
+		previous.put(start, start);
+		frontier.add(start);
+		while (! frontier.isEmpty()) {
+			Spot spot = frontier.remove();
+			if (spot.equals(goal)) {
+				List<Spot> steps = new ArrayList<>();
+				for (Spot step = goal; ! step.equals(start); step = previous.get(step)) {
+					steps.add(step);
+				}
+				steps.add(start);
+				Collections.reverse(steps);
+				return Path.of(steps);
+			}
+			for (Spot neighbor : myMaze.getNeighbors(spot)) {
+				if (neighbor.getState() == Spot.PATH && ! previous.containsKey(neighbor)) {
+					previous.put(neighbor, spot);
+					frontier.add(neighbor);
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * 	TODO: report whether or not the algorithm has successfully found the goal
 	 * 	note, this is different behavior than the current private method isSearchOver()
@@ -166,6 +226,105 @@ public abstract class SearchAlgorithm {
 		}
 	}
 
+	/**
+	 * Report roughly how many bytes of state, beyond the maze itself, the algorithm has needed
+	 * at its largest: its frontier at its maximum size plus its trail of paths
+	 * @return estimated peak size of the algorithm's auxiliary state in bytes
+	 */
+	public long getAuxiliaryBytes() {
+		return (long)getMaxSize() * FRONTIER_ENTRY_BYTES + (long)myPaths.size() * PATH_ENTRY_BYTES;
+	}
+
+	/**
+	 * Report whether this algorithm can start over on its maze by restart(), rather than be made anew
+	 * @return true if the algorithm can put its own search state back the way it was when made
+	 */
+	public boolean canRestart() {
+		return false;
+	}
+
+	/**
+	 * Start the search over from the start of its maze, which may have been carved again since
+	 * (at the same size) but must have no marks left on it, reusing whatever the algorithm has
+	 * already allocated rather than allocating it again
+	 */
+	public void restart() {
+		// simple error checking, we will see better ways in the future
+		assert(canRestart());
+		numOfSteps = 0;
+		maxSize = 0;
+		numOfDeadEnds = 0;
+		myCurrent = myMaze.getStart();
+		myCurrent.markAsPath();
+		myPaths.clear();
+		if (myFrontier != null) {
+			myFrontier.clear();
+		}
+		restartState();
+	}
+
+	/**
+	 * Put search state kept by a subclass itself back the way it was when the algorithm was made,
+	 * once the counters, current spot, frontier and trail have been
+	 */
+	protected void restartState() {
+	}
+
+	/**
+	 * Report whether this algorithm can be put back the way it was by restore()
+	 * @return true unless the algorithm keeps search state that a snapshot does not capture
+	 */
+	public boolean canSnapshot() {
+		return true;
+	}
+
+	/**
+	 * Take a snapshot of this algorithm and its maze as they are now, to be restored later
+	 * @return snapshot of the search's counters, current spot, frontier, trail and maze
+	 */
+	public SearchSnapshot snapshot() {
+		// simple error checking, we will see better ways in the future
+		assert(canSnapshot());
+		return new SearchSnapshot(this, numOfSteps, maxSize, numOfDeadEnds, saveState());
+	}
+
+	/**
+	 * Put this algorithm and its maze back the way they were when the given snapshot was taken
+	 * @param snapshot taken earlier from this algorithm
+	 */
+	public void restore(SearchSnapshot snapshot) {
+		snapshot.restoreInto(this);
+		numOfSteps = snapshot.getNumOfSteps();
+		maxSize = snapshot.getMaxSize();
+		numOfDeadEnds = snapshot.getNumOfDeadEnds();
+		restoreState(snapshot.getState());
+	}
+
+	/**
+	 * Copy any search state kept by a subclass itself, beyond the frontier and trail, for a snapshot
+	 * @return copy of that state, or null if there is none
+	 */
+	protected Object saveState() {
+		return null;
+	}
+
+	/**
+	 * Put back search state kept by a subclass itself, as copied by saveState()
+	 * @param state copied earlier by saveState()
+	 */
+	protected void restoreState(Object state) {
+	}
+
+	/**
+	 * Check that a maze's spots can be numbered with an int, before the algorithm marks its start,
+	 * so a maze that is refused is left untouched: call it in the argument to this constructor
+	 * @return the given maze, unless it has more spots than an int can number (see Maze.getIntSize())
+	 */
+	protected static Maze intSized(Maze maze, String user) {
+		Maze.getIntSize(maze.getNumRows(), maze.getNumColumns(), user);
+		return maze;
+	}
+
 	private int getNumOfWalls() {
 		int numOfPath = 0;
 		for (Spot spot: myNeighbors) {
@@ -0,0 +1,135 @@
+package maze.solvers;
+
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ * This class holds everything needed to put a search back the way it was at some step:
+ * its counters, current spot, frontier, trail of paths, any state of its own, and the
+ * state of every spot in its maze.
+ *
+ * Spots are kept as row-major indices and the maze's states two bits each, so a snapshot
+ * of a search on a million-spot maze takes about 250 KB plus four bytes per frontier spot
+ * and eight per trail entry.
+ *
+ * @author Wei Wu
+ */
+public class SearchSnapshot {
+    private static final int BITS_PER_STATE = 2;
+    private static final int STATES_PER_WORD = Long.SIZE / BITS_PER_STATE;
+
+    private final int myNumOfSteps;
+    private final int myMaxSize;
+    private final int myNumOfDeadEnds;
+    private final int myCurrent;
+    private final int[] myFrontier;
+    private final int[] myPathKeys;
+    private final int[] myPathValues;
+    private final long[] myStates;
+    private final Object myState;
+
+
+    // Take a snapshot of the given search as it is now, along with the given state of its own
+    SearchSnapshot (SearchAlgorithm search, int numOfSteps, int maxSize, int numOfDeadEnds, Object state) {
+        Maze maze = search.getMyMaze();
+        myNumOfSteps = numOfSteps;
+        myMaxSize = maxSize;
+        myNumOfDeadEnds = numOfDeadEnds;
+        myCurrent = (search.getMyCurrent() == null) ? -1 : indexOf(maze, search.getMyCurrent());
+        Collection<Spot> frontier = search.getMyFrontier();
+        myFrontier = new int[(frontier == null) ? 0 : frontier.size()];
+        int k = 0;
+        if (frontier != null) {
+            for (Spot spot : frontier) {
+                myFrontier[k++] = indexOf(maze, spot);
+            }
+        }
+        Map<Spot, Spot> paths = search.getMyPaths();
+        myPathKeys = new int[paths.size()];
+        myPathValues = new int[paths.size()];
+        k = 0;
+        for (Map.Entry<Spot, Spot> entry : paths.entrySet()) {
+            myPathKeys[k] = indexOf(maze, entry.getKey());
+            myPathValues[k] = indexOf(maze, entry.getValue());
+            k += 1;
+        }
+        long size = (long)maze.getNumRows() * maze.getNumColumns();
+        myStates = new long[(int)((size + STATES_PER_WORD - 1) / STATES_PER_WORD)];
+        k = 0;
+        for (int r = 0; r < maze.getNumRows(); r += 1) {
+            for (int c = 0; c < maze.getNumColumns(); c += 1) {
+                myStates[k / STATES_PER_WORD] |= (long)maze.getState(r, c) << ((k % STATES_PER_WORD) * BITS_PER_STATE);
+                k += 1;
+            }
+        }
+        myState = state;
+    }
+
+    /**
+     * Returns roughly how many bytes this snapshot takes, not counting any state of the search's own.
+     */
+    public long getNumBytes () {
+        return (long)myStates.length * Long.BYTES
+                + (long)(myFrontier.length + myPathKeys.length + myPathValues.length) * Integer.BYTES;
+    }
+
+    /**
+     * Returns number of steps the search had taken when the snapshot was taken.
+     */
+    public int getNumOfSteps () {
+        return myNumOfSteps;
+    }
+
+    int getMaxSize () {
+        return myMaxSize;
+    }
+
+    int getNumOfDeadEnds () {
+        return myNumOfDeadEnds;
+    }
+
+    Object getState () {
+        return myState;
+    }
+
+    // Put the given search's maze, current spot, frontier and trail back as they were
+    void restoreInto (SearchAlgorithm search) {
+        Maze maze = search.getMyMaze();
+        int k = 0;
+        for (int r = 0; r < maze.getNumRows(); r += 1) {
+            for (int c = 0; c < maze.getNumColumns(); c += 1) {
+                int state = (int)(myStates[k / STATES_PER_WORD] >>> ((k % STATES_PER_WORD) * BITS_PER_STATE)) & 3;
+                if (state != Spot.WALL) {
+                    maze.setMark(r, c, state);
+                }
+                k += 1;
+            }
+        }
+        search.setMyCurrent((myCurrent < 0) ? null : spotAt(maze, myCurrent));
+        // refill the search's own collections, since subclasses keep their own references to them
+        Collection<Spot> frontier = search.getMyFrontier();
+        if (frontier != null) {
+            frontier.clear();
+            for (int index : myFrontier) {
+                frontier.add(spotAt(maze, index));
+            }
+        }
+        Map<Spot, Spot> paths = search.getMyPaths();
+        paths.clear();
+        for (k = 0; k < myPathKeys.length; k += 1) {
+            paths.put(spotAt(maze, myPathKeys[k]), spotAt(maze, myPathValues[k]));
+        }
+    }
+
+    private static int indexOf (Maze maze, Spot spot) {
+        return spot.getX() * maze.getNumColumns() + spot.getY();
+    }
+
+    private static Spot spotAt (Maze maze, int index) {
+        return maze.getSpot(index / maze.getNumColumns(), index % maze.getNumColumns());
+    }
+}
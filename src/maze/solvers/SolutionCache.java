@@ -0,0 +1,279 @@
+package maze.solvers;
+
+import maze.model.BitGrid;
+import maze.model.Maze;
+import maze.model.Path;
+import maze.model.Spot;
+import maze.model.Terrain;
+import maze.util.XXHash64;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * This class remembers the paths found through mazes, so solving a maze that has
+ * been solved before returns at once instead of stepping the solver all over again.
+ *
+ * Solutions are keyed by a hash of the maze's contents (its packed wall bits and its
+ * terrain, if any), its start and goal, and the id of the solver that found them. The
+ * most recently used solutions are kept in memory; if a directory is given, every
+ * solution is also written there as a packed {@link Path}, so later runs can find it too.
+ *
+ * A solver whose path cannot be recovered (such as the random walk) is simply not cached.
+ *
+ * @author Wei Wu
+ */
+public class SolutionCache {
+	public static final int DEFAULT_CAPACITY = 64;
+	private static final int MAGIC = 0x4D5A5350;
+	private static final long SEED = 0x6D617A65L;
+
+	// most recently used solutions, least recent first
+	private final Map<Key, Solution> myMemory;
+	// where solutions are written, or null to keep them only in memory
+	private final java.nio.file.Path myDirectory;
+	private long myNumHits;
+	private long myNumDiskHits;
+	private long myNumMisses;
+
+
+	/**
+	 * Create a cache that keeps the DEFAULT_CAPACITY most recent solutions in memory only.
+	 */
+	public SolutionCache () {
+		this(DEFAULT_CAPACITY, null);
+	}
+
+	/**
+	 * Create a cache that keeps the given number of most recent solutions in memory and
+	 * every solution in the given directory (created if needed), or nowhere else if it is null.
+	 */
+	public SolutionCache (int capacity, java.nio.file.Path directory) {
+		// simple error checking, we will see better ways in the future
+		assert(capacity > 0);
+		myMemory = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<Key, Solution> eldest) {
+				return size() > capacity;
+			}
+		};
+		myDirectory = directory;
+		if (directory != null) {
+			try {
+				Files.createDirectories(directory);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the path from start to goal through the given maze found by the solver with
+	 * the given id, or null if it found none, running the solver made by the given function
+	 * only if no such solution has been cached. Either way the path is left marked in the maze.
+	 */
+	public Path solve (Maze maze, String solverId, Function<Maze, SearchAlgorithm> solver) {
+		Key key = keyOf(maze, solverId);
+		Solution solution = lookUp(key);
+		if (solution != null) {
+			if (solution.path() != null) {
+				solution.path().mark(maze);
+			}
+			return solution.path();
+		}
+
+		SearchAlgorithm search = solver.apply(maze);
+		while (! search.step()) {
+			// keep stepping until the search is done
+		}
+		Path path = search.getPath();
+		if (path != null || ! search.findTheGoal()) {
+			store(key, new Solution(path));
+		}
+		// otherwise the solver found the goal but left no way to tell how, so there is nothing to cache
+		return path;
+	}
+
+	/**
+	 * Returns true only if a solution for the given maze and solver is cached, in memory or on disk.
+	 */
+	public boolean contains (Maze maze, String solverId) {
+		Key key = keyOf(maze, solverId);
+		synchronized (this) {
+			if (myMemory.containsKey(key)) {
+				return true;
+			}
+		}
+		return myDirectory != null && Files.exists(fileOf(key));
+	}
+
+	/**
+	 * Forget every solution kept in memory; those on disk are kept.
+	 */
+	public synchronized void clear () {
+		myMemory.clear();
+	}
+
+	/**
+	 * Returns number of solves answered from memory.
+	 */
+	public synchronized long getNumHits () {
+		return myNumHits;
+	}
+
+	/**
+	 * Returns number of solves answered from disk.
+	 */
+	public synchronized long getNumDiskHits () {
+		return myNumDiskHits;
+	}
+
+	/**
+	 * Returns number of solves that had to run the solver.
+	 */
+	public synchronized long getNumMisses () {
+		return myNumMisses;
+	}
+
+	/**
+	 * Returns hash of everything about the given maze that affects its solutions:
+	 * its size, which spots are walls, and the cost of each spot.
+	 */
+	public static long hashOf (Maze maze) {
+		long hash = XXHash64.hash(BitGrid.openSpots(maze).getWords(), SEED);
+		hash = XXHash64.mix(hash, ((long)maze.getNumRows() << Integer.SIZE) | maze.getNumColumns());
+		Terrain terrain = maze.getTerrain();
+		if (terrain != null) {
+			// pack eight costs to a word, row after row
+			long[] costs = new long[(int)(((long)maze.getNumRows() * maze.getNumColumns() + Long.BYTES - 1) / Long.BYTES)];
+			int k = 0;
+			for (int r = 0; r < maze.getNumRows(); r += 1) {
+				for (int c = 0; c < maze.getNumColumns(); c += 1) {
+					costs[k / Long.BYTES] |= (long)terrain.getCost(r, c) << ((k % Long.BYTES) * Byte.SIZE);
+					k += 1;
+				}
+			}
+			hash = XXHash64.mix(hash, XXHash64.hash(costs, SEED));
+		}
+		return hash;
+	}
+
+	private synchronized Solution lookUp (Key key) {
+		Solution solution = myMemory.get(key);
+		if (solution != null) {
+			myNumHits += 1;
+			return solution;
+		}
+		solution = read(key);
+		if (solution != null) {
+			myNumDiskHits += 1;
+			myMemory.put(key, solution);
+			return solution;
+		}
+		myNumMisses += 1;
+		return null;
+	}
+
+	private void store (Key key, Solution solution) {
+		synchronized (this) {
+			myMemory.put(key, solution);
+		}
+		write(key, solution);
+	}
+
+	// Read given key's solution from disk, or return null if it is not there
+	private Solution read (Key key) {
+		if (myDirectory == null) {
+			return null;
+		}
+		java.nio.file.Path file = fileOf(key);
+		if (! Files.exists(file)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			if (in.readInt() != MAGIC || ! key.equals(Key.read(in))) {
+				// another key whose file name collides, or a file that is not ours
+				return null;
+			}
+			return Solution.read(in);
+		}
+		catch (IOException e) {
+			// an unreadable file is as good as a missing one
+			return null;
+		}
+	}
+
+	// Write given key's solution to disk, replacing any earlier one as a whole
+	private void write (Key key, Solution solution) {
+		if (myDirectory == null) {
+			return;
+		}
+		try {
+			java.nio.file.Path file = fileOf(key);
+			java.nio.file.Path temporary = Files.createTempFile(myDirectory, "solution", ".tmp");
+			try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+				out.writeInt(MAGIC);
+				key.write(out);
+				solution.write(out);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private java.nio.file.Path fileOf (Key key) {
+		return myDirectory.resolve(String.format("%016x-%08x.path", key.mazeHash(), key.hashCode()));
+	}
+
+	/**
+	 * Everything that decides a solution: the maze's contents, its start and goal, and the solver.
+	 */
+	private record Key(long mazeHash, int startX, int startY, int goalX, int goalY, String solverId) {
+		static Key read (DataInputStream in) throws IOException {
+			return new Key(in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readUTF());
+		}
+
+		void write (DataOutputStream out) throws IOException {
+			out.writeLong(mazeHash);
+			out.writeInt(startX);
+			out.writeInt(startY);
+			out.writeInt(goalX);
+			out.writeInt(goalY);
+			out.writeUTF(solverId);
+		}
+	}
+
+	private static Key keyOf (Maze maze, String solverId) {
+		Spot start = maze.getStart();
+		Spot goal = maze.getGoal();
+		return new Key(hashOf(maze), start.getX(), start.getY(), goal.getX(), goal.getY(), solverId);
+	}
+
+
+	/**
+	 * A path found by a solver, or null if it found none.
+	 */
+	private record Solution(Path path) {
+		static Solution read (DataInputStream in) throws IOException {
+			return new Solution(in.readBoolean() ? Path.read(in) : null);
+		}
+
+		void write (DataOutputStream out) throws IOException {
+			out.writeBoolean(path != null);
+			if (path != null) {
+				path.write(out);
+			}
+		}
+	}
+}
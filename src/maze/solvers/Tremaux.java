@@ -0,0 +1,161 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.util.Arrays;
+
+
+/**
+ * This class represents a Tremaux maze search algorithm.
+ *
+ * Like a depth-first search, it explores unmarked halls and backs out of dead ends,
+ * but instead of a stack it chalks four bits onto each spot: whether the spot is
+ * unmarked, on the current trail, or abandoned, plus the direction leading back
+ * along the trail. This works on mazes with loops as well as perfect ones.
+ *
+ * @author Wei Wu
+ */
+public class Tremaux extends SearchAlgorithm {
+	public static final String TITLE = "Tremaux";
+	// bits of chalk needed for each spot
+	public static final int BITS_PER_SPOT = 4;
+
+	// marks a spot can have
+	private static final int UNMARKED = 0;
+	private static final int ON_TRAIL = 1;
+	private static final int ABANDONED = 2;
+	private static final int SPOTS_PER_WORD = Long.SIZE / BITS_PER_SPOT;
+
+	// chalk marks, packed sixteen spots to a word
+	private final long[] myMarks;
+	private boolean isStuck;
+
+	public Tremaux (Maze maze) {
+		super(TITLE, intSized(maze, TITLE));
+		int size = Maze.getIntSize(maze.getNumRows(), maze.getNumColumns(), TITLE);
+		myMarks = new long[(size + SPOTS_PER_WORD - 1) / SPOTS_PER_WORD];
+		setMark(getMyCurrent(), ON_TRAIL, Direction.NORTH);
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		if (isSearchOver()) {
+			return true;
+		}
+
+		recordSteps();
+
+		// find possible next steps
+		setMyNeighbors(getListNeighbors());
+
+		// choose next spot to explore
+		Spot next = null;
+		Direction heading = null;
+		for (Direction d : Direction.values()) {
+			Spot spot = getMyMaze().getNeighbor(getMyCurrent(), d);
+			if (spot != null && spot.getState() != Spot.WALL && getMark(spot) == UNMARKED) {
+				next = spot;
+				heading = d;
+				break;
+			}
+		}
+
+		if (next != null) {
+			next.markAsPath();
+			setMark(next, ON_TRAIL, heading.reverse());
+		}
+		else if (getMyCurrent().equals(getMyMaze().getStart())) {
+			// backed all the way out without finding the goal
+			getMyCurrent().markAsVisited();
+			isStuck = true;
+			return true;
+		}
+		else {
+			// follow the chalk back out of this dead end
+			next = getMyMaze().getNeighbor(getMyCurrent(), getBackDirection(getMyCurrent()));
+			getMyCurrent().markAsVisited();
+			setMark(getMyCurrent(), ABANDONED, Direction.NORTH);
+		}
+		updateBacktrack();
+
+		setMyCurrent(next);
+		return isSearchOver();
+	}
+
+	// Search is unsuccessful if every reachable hall has been abandoned
+	@Override
+	protected boolean isSearchOver () {
+		return isStuck || super.isSearchOver();
+	}
+
+	@Override
+	protected Object saveState () {
+		return new State(myMarks.clone(), isStuck);
+	}
+
+	@Override
+	protected void restoreState (Object state) {
+		State saved = (State)state;
+		System.arraycopy(saved.marks(), 0, myMarks, 0, myMarks.length);
+		isStuck = saved.isStuck();
+	}
+
+	// Its chalk marks are rubbed out in place
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		Arrays.fill(myMarks, 0);
+		isStuck = false;
+		setMark(getMyCurrent(), ON_TRAIL, Direction.NORTH);
+	}
+
+	@Override
+	public int getMaxSize () {
+		return 1;
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return (long)myMarks.length * Long.BYTES;
+	}
+
+	private int getMark (Spot spot) {
+		return (int)(getBits(spot) & 3);
+	}
+
+	private Direction getBackDirection (Spot spot) {
+		return Direction.fromCode((int)(getBits(spot) >>> 2));
+	}
+
+	private long getBits (Spot spot) {
+		int index = indexOf(spot);
+		return (myMarks[index / SPOTS_PER_WORD] >>> shiftOf(index)) & 0xF;
+	}
+
+	private void setMark (Spot spot, int mark, Direction back) {
+		int index = indexOf(spot);
+		int word = index / SPOTS_PER_WORD;
+		long bits = mark | ((long)back.ordinal() << 2);
+		myMarks[word] = (myMarks[word] & ~(0xFL << shiftOf(index))) | (bits << shiftOf(index));
+	}
+
+	private int shiftOf (int index) {
+		return (index % SPOTS_PER_WORD) * BITS_PER_SPOT;
+	}
+
+	private int indexOf (Spot spot) {
+		return spot.getX() * getMyMaze().getNumColumns() + spot.getY();
+	}
+
+	// Chalk marks and whether the search has given up
+	private record State(long[] marks, boolean isStuck) {}
+}
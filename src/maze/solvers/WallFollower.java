@@ -0,0 +1,134 @@
+package maze.solvers;
+
+import maze.model.Direction;
+import maze.model.Maze;
+import maze.model.Spot;
+
+
+/**
+ * This class represents a Wall-Follower maze search algorithm.
+ *
+ * It keeps one hand on the wall and walks until it reaches the goal, which is
+ * guaranteed to happen on a perfect maze. Its only state is its current spot and
+ * heading, no matter how big the maze is.
+ *
+ * @author Wei Wu
+ */
+public class WallFollower extends SearchAlgorithm {
+	public static final String TITLE = "Wall Follower";
+	// current spot, heading, and direction of the first move
+	public static final int AUXILIARY_BYTES = 4 * Integer.BYTES;
+
+	private final boolean isLeftHand;
+	private Direction myHeading;
+	private Direction myFirstMove;
+	private boolean isLost;
+
+	/**
+	 * Create a right-hand wall follower.
+	 */
+	public WallFollower (Maze maze) {
+		this(maze, false);
+	}
+
+	/**
+	 * Create a wall follower that keeps either its left or its right hand on the wall.
+	 */
+	public WallFollower (Maze maze, boolean leftHand) {
+		super(TITLE, maze);
+		isLeftHand = leftHand;
+		myHeading = Direction.SOUTH;
+	}
+
+	/**
+	 * @see SearchAlgorithm#step()
+	 */
+	@Override
+	public boolean step () {
+		if (isSearchOver()) {
+			return true;
+		}
+
+		recordSteps();
+
+		// find possible next steps
+		setMyNeighbors(getListNeighbors());
+
+		// try the hand side first, then straight ahead, then the other side, then back
+		Direction heading = isLeftHand ? myHeading.turnLeft() : myHeading.turnRight();
+		Spot next = null;
+		for (int k = 0; k < 4 && next == null; k += 1) {
+			next = getMyMaze().getNeighbor(getMyCurrent(), heading);
+			if (next == null || next.getState() == Spot.WALL) {
+				next = null;
+				heading = isLeftHand ? heading.turnRight() : heading.turnLeft();
+			}
+		}
+		// leaving the start the same way as the first time means every reachable hall has been walked
+		if (next == null || (myFirstMove == heading && getMyCurrent().equals(getMyMaze().getStart()))) {
+			isLost = true;
+			return true;
+		}
+		if (myFirstMove == null) {
+			myFirstMove = heading;
+		}
+
+		// a hall already on the path means we are retracing our steps out of a dead end
+		if (next.getState() == Spot.PATH) {
+			getMyCurrent().markAsVisited();
+		}
+		else {
+			next.markAsPath();
+		}
+		updateBacktrack();
+
+		setMyCurrent(next);
+		myHeading = heading;
+		return isSearchOver();
+	}
+
+	// Search is unsuccessful if the walk has come back around to where it started
+	@Override
+	protected boolean isSearchOver () {
+		return isLost || super.isSearchOver();
+	}
+
+	@Override
+	protected Object saveState () {
+		return new State(myHeading, myFirstMove, isLost);
+	}
+
+	@Override
+	protected void restoreState (Object state) {
+		State saved = (State)state;
+		myHeading = saved.heading();
+		myFirstMove = saved.firstMove();
+		isLost = saved.isLost();
+	}
+
+	// Its heading is all it has to forget
+	@Override
+	public boolean canRestart () {
+		return true;
+	}
+
+	@Override
+	protected void restartState () {
+		myHeading = Direction.SOUTH;
+		myFirstMove = null;
+		isLost = false;
+	}
+
+	@Override
+	public int getMaxSize () {
+		return 1;
+	}
+
+	@Override
+	public long getAuxiliaryBytes () {
+		return AUXILIARY_BYTES;
+	}
+
+	// Everything the walk knows besides where it is
+	private record State(Direction heading, Direction firstMove, boolean isLost) {}
+}
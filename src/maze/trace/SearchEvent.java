@@ -0,0 +1,24 @@
+package maze.trace;
+
+
+/**
+ * This record represents something that happened during a search: a spot changing state,
+ * every mark being cleared, the search reaching a milestone, or the search finishing.
+ *
+ * For a state change, x and y are the spot that changed; for a milestone or the finish,
+ * they are the search's current spot and the states are unused. The step is the number
+ * of steps the search had taken when it happened.
+ *
+ * @author Wei Wu
+ */
+public record SearchEvent(Kind kind, long step, int x, int y, int oldState, int newState) {
+    /**
+     * The kinds of thing that can happen.
+     */
+    public enum Kind {
+        STATE_CHANGED,
+        MARKS_CLEARED,
+        PROGRESS,
+        FINISHED
+    }
+}
@@ -0,0 +1,213 @@
+package maze.trace;
+
+import maze.model.Maze;
+import maze.model.MazeListener;
+import maze.model.Spot;
+import maze.solvers.SearchAlgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * This class publishes what a search does to its maze, as batches of {@link SearchEvent}s,
+ * to any number of subscribers (a display, a recorder, a metrics sink) at once.
+ *
+ * Events are gathered into batches of up to a given size before being handed over, so the
+ * search pays for one hand-over per batch rather than per event. The maze reports changes
+ * while holding its listener lock, so those callbacks only gather events; full batches are
+ * handed over later, by stepped() or flush() on the search's own thread, so a subscriber
+ * never holds up other writers to the maze and may even write to it itself. Subscribers
+ * run on the publisher's own daemon threads, not the common pool that parallel solvers
+ * keep busy, and ask for batches at their own pace. When a subscriber falls a full buffer
+ * behind, the publisher either waits for it, slowing the search to its pace, or drops
+ * the batch for that subscriber and counts it, leaving the search at full speed.
+ *
+ * @author Wei Wu
+ */
+public class SearchPublisher implements MazeListener, Flow.Publisher<List<SearchEvent>>, AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+
+    private final Maze myMaze;
+    private final SubmissionPublisher<List<SearchEvent>> myPublisher;
+    private final int myBatchSize;
+    private final int myProgressInterval;
+    private final boolean isDroppingWhenBehind;
+    private final AtomicLong myNumDropped;
+    // events gathered and batches ready to hand over, guarded by myLock since the maze may
+    // report changes from a solver's worker threads
+    private final Object myLock;
+    private List<SearchEvent> myBatch;
+    private List<List<SearchEvent>> myReady;
+    private volatile long myStep;
+
+
+    /**
+     * Create a publisher of changes to the given maze that waits for subscribers that fall behind.
+     */
+    public SearchPublisher (Maze maze) {
+        this(maze, DEFAULT_BATCH_SIZE, DEFAULT_PROGRESS_INTERVAL, false);
+    }
+
+    /**
+     * Create a publisher of changes to the given maze in batches of the given size, reporting
+     * progress every given number of steps, that either drops batches for subscribers that
+     * fall behind or waits for them.
+     */
+    public SearchPublisher (Maze maze, int batchSize, int progressInterval, boolean dropWhenBehind) {
+        // simple error checking, we will see better ways in the future
+        assert(batchSize > 0 && progressInterval > 0);
+        myMaze = maze;
+        myPublisher = new SubmissionPublisher<>(Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "search-publisher");
+            thread.setDaemon(true);
+            return thread;
+        }), Flow.defaultBufferSize());
+        myBatchSize = batchSize;
+        myProgressInterval = progressInterval;
+        isDroppingWhenBehind = dropWhenBehind;
+        myNumDropped = new AtomicLong();
+        myLock = new Object();
+        myBatch = new ArrayList<>(batchSize);
+        myReady = new ArrayList<>();
+        maze.addListener(this);
+    }
+
+    /**
+     * Run given search to completion, publishing everything it does, and return it.
+     */
+    public SearchAlgorithm run (SearchAlgorithm search) {
+        boolean isDone = false;
+        while (! isDone) {
+            isDone = search.step();
+            stepped(search, isDone);
+        }
+        return search;
+    }
+
+    /**
+     * Note that given search has taken a step, publishing a milestone every so many steps and
+     * everything gathered so far once it is done.
+     */
+    public void stepped (SearchAlgorithm search, boolean isDone) {
+        myStep += 1;
+        Spot current = search.getMyCurrent();
+        int x = (current == null) ? -1 : current.getX();
+        int y = (current == null) ? -1 : current.getY();
+        if (isDone) {
+            add(new SearchEvent(SearchEvent.Kind.FINISHED, myStep, x, y, 0, 0));
+            flush();
+        }
+        else {
+            if (myStep % myProgressInterval == 0) {
+                add(new SearchEvent(SearchEvent.Kind.PROGRESS, myStep, x, y, 0, 0));
+            }
+            publish(takeReady(false));
+        }
+    }
+
+    /**
+     * @see MazeListener#stateChanged(int, int, int, int)
+     */
+    @Override
+    public void stateChanged (int x, int y, int oldState, int newState) {
+        if (oldState != newState) {
+            add(new SearchEvent(SearchEvent.Kind.STATE_CHANGED, myStep, x, y, oldState, newState));
+        }
+    }
+
+    /**
+     * @see MazeListener#marksCleared()
+     */
+    @Override
+    public void marksCleared () {
+        add(new SearchEvent(SearchEvent.Kind.MARKS_CLEARED, myStep, -1, -1, 0, 0));
+    }
+
+    /**
+     * @see Flow.Publisher#subscribe(Flow.Subscriber)
+     */
+    @Override
+    public void subscribe (Flow.Subscriber<? super List<SearchEvent>> subscriber) {
+        myPublisher.subscribe(subscriber);
+    }
+
+    /**
+     * Hand the events gathered so far to subscribers without waiting for a full batch; this
+     * must not be called from a maze listener, since it may wait for subscribers.
+     */
+    public void flush () {
+        publish(takeReady(true));
+    }
+
+    /**
+     * Returns number of batches dropped for subscribers that fell behind.
+     */
+    public long getNumDropped () {
+        return myNumDropped.get();
+    }
+
+    /**
+     * Returns number of subscribers.
+     */
+    public int getNumSubscribers () {
+        return myPublisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Stop listening to the maze, publish anything gathered, and tell subscribers there is no more.
+     */
+    @Override
+    public void close () {
+        myMaze.removeListener(this);
+        flush();
+        myPublisher.close();
+    }
+
+    // Gather given event, setting its batch aside to hand over once it is full
+    private void add (SearchEvent event) {
+        synchronized (myLock) {
+            myBatch.add(event);
+            if (myBatch.size() >= myBatchSize) {
+                myReady.add(myBatch);
+                myBatch = new ArrayList<>(myBatchSize);
+            }
+        }
+    }
+
+    // Returns batches ready to hand over, including the one still being gathered if asked
+    private List<List<SearchEvent>> takeReady (boolean withPartial) {
+        synchronized (myLock) {
+            if (withPartial && ! myBatch.isEmpty()) {
+                myReady.add(myBatch);
+                myBatch = new ArrayList<>(myBatchSize);
+            }
+            if (myReady.isEmpty()) {
+                return List.of();
+            }
+            List<List<SearchEvent>> ready = myReady;
+            myReady = new ArrayList<>();
+            return ready;
+        }
+    }
+
+    // Hand given batches to subscribers, outside any lock
+    private void publish (List<List<SearchEvent>> batches) {
+        for (List<SearchEvent> batch : batches) {
+            if (isDroppingWhenBehind) {
+                myPublisher.offer(batch, (subscriber, dropped) -> {
+                    myNumDropped.incrementAndGet();
+                    return false;
+                });
+            }
+            else {
+                myPublisher.submit(batch);
+            }
+        }
+    }
+}
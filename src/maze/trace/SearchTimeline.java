@@ -0,0 +1,184 @@
+package maze.trace;
+
+import maze.model.Maze;
+import maze.solvers.SearchAlgorithm;
+import maze.solvers.SearchSnapshot;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+
+/**
+ * This class runs a search one step at a time while taking a snapshot every so many
+ * steps, so it can jump back (or forward, up to the furthest step reached) to any step:
+ * it restores the nearest snapshot before that step and steps the search from there.
+ *
+ * Only a bounded number of snapshots is kept: once there are too many, every other one
+ * is dropped and snapshots are taken half as often, so memory stays bounded however
+ * long the search runs while seeking never needs more than one interval of steps.
+ *
+ * Searches that cannot be snapshot are started over and stepped from the beginning
+ * instead, and searches that make random choices may choose differently the second time.
+ *
+ * @author Wei Wu
+ */
+public class SearchTimeline {
+    public static final int DEFAULT_INTERVAL = 64;
+    public static final int DEFAULT_MAX_SNAPSHOTS = 64;
+
+    private final Maze myMaze;
+    private final Function<Maze, SearchAlgorithm> myFactory;
+    private final int myMaxSnapshots;
+    private SearchAlgorithm mySolver;
+    // snapshots by the step they were taken at
+    private final TreeMap<Long, SearchSnapshot> mySnapshots;
+    private long myInterval;
+    private long myStep;
+    private long myFurthestStep;
+    // step at which the search finished, or -1 if it has not yet
+    private long myLastStep;
+
+
+    /**
+     * Create a timeline for the search made by the given function on the given maze.
+     */
+    public SearchTimeline (Maze maze, Function<Maze, SearchAlgorithm> solver) {
+        this(maze, solver, DEFAULT_INTERVAL, DEFAULT_MAX_SNAPSHOTS);
+    }
+
+    /**
+     * Create a timeline for the search made by the given function on the given maze, first
+     * taking a snapshot every given number of steps and never keeping more than the given number.
+     */
+    public SearchTimeline (Maze maze, Function<Maze, SearchAlgorithm> solver, int interval, int maxSnapshots) {
+        // simple error checking, we will see better ways in the future
+        assert(interval > 0 && maxSnapshots >= 2);
+        myMaze = maze;
+        myFactory = solver;
+        myInterval = interval;
+        myMaxSnapshots = maxSnapshots;
+        mySnapshots = new TreeMap<>();
+        myLastStep = -1;
+        restart();
+        if (mySolver.canSnapshot()) {
+            mySnapshots.put(0L, mySolver.snapshot());
+        }
+    }
+
+    /**
+     * Returns the search as it is at the current step; it may be a different object after seeking.
+     */
+    public SearchAlgorithm getSolver () {
+        return mySolver;
+    }
+
+    /**
+     * Returns number of steps taken to reach the current point of the timeline.
+     */
+    public long getStep () {
+        return myStep;
+    }
+
+    /**
+     * Returns furthest step reached so far, which is as far as seeking can go.
+     */
+    public long getFurthestStep () {
+        return myFurthestStep;
+    }
+
+    /**
+     * Returns true only if the search has finished by the current step.
+     */
+    public boolean isDone () {
+        return myLastStep >= 0 && myStep >= myLastStep;
+    }
+
+    /**
+     * Returns number of steps between snapshots at the moment.
+     */
+    public long getInterval () {
+        return myInterval;
+    }
+
+    /**
+     * Returns number of snapshots kept at the moment.
+     */
+    public int getNumSnapshots () {
+        return mySnapshots.size();
+    }
+
+    /**
+     * Returns roughly how many bytes the snapshots kept at the moment take.
+     */
+    public long getSnapshotBytes () {
+        long total = 0;
+        for (SearchSnapshot snapshot : mySnapshots.values()) {
+            total += snapshot.getNumBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Take one step of the search, returning true if it is done.
+     */
+    public boolean step () {
+        if (isDone()) {
+            return true;
+        }
+        boolean isFinished = mySolver.step();
+        myStep += 1;
+        if (isFinished) {
+            myLastStep = myStep;
+        }
+        if (myStep > myFurthestStep) {
+            myFurthestStep = myStep;
+            if (myStep % myInterval == 0 && mySolver.canSnapshot()) {
+                mySnapshots.put(myStep, mySolver.snapshot());
+                if (mySnapshots.size() > myMaxSnapshots) {
+                    thin();
+                }
+            }
+        }
+        return isFinished;
+    }
+
+    /**
+     * Move to the given step (clamped between the start and the furthest step reached).
+     */
+    public void seek (long step) {
+        long target = Math.max(0, Math.min(step, myFurthestStep));
+        Map.Entry<Long, SearchSnapshot> nearest = mySnapshots.floorEntry(target);
+        if (target < myStep || (nearest != null && nearest.getKey() > myStep)) {
+            if (nearest == null) {
+                restart();
+            }
+            else {
+                mySolver.restore(nearest.getValue());
+                myStep = nearest.getKey();
+            }
+        }
+        while (myStep < target) {
+            step();
+        }
+    }
+
+    // Start the search over with a fresh solver
+    private void restart () {
+        myMaze.resetMaze();
+        mySolver = myFactory.apply(myMaze);
+        myStep = 0;
+    }
+
+    // Drop every other snapshot and take them half as often from now on
+    private void thin () {
+        myInterval *= 2;
+        Iterator<Long> steps = mySnapshots.keySet().iterator();
+        while (steps.hasNext()) {
+            if (steps.next() % myInterval != 0) {
+                steps.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package maze.trace;
+
+import maze.model.Maze;
+import maze.model.MazeListener;
+import maze.solvers.SearchAlgorithm;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+
+/**
+ * This class records every change a search makes to a maze as a compact trace, so the
+ * search can be replayed later by a {@link TraceReplayer} without running it again.
+ *
+ * The trace starts with a header (MAGIC, rows, columns). Then comes each step, which is
+ * its number of events followed by the events themselves. Each event is one
+ * variable-length number: the distance from the previous event's spot (zigzag encoded)
+ * above that spot's old and new states, two bits each, so most events take one or two
+ * bytes. An event of zero, which no real change can produce, means every mark was cleared.
+ * After the steps comes an index of where every CHECKPOINT_INTERVAL-th step starts, so a
+ * replay can seek, and finally the position of that index.
+ *
+ * Changes that leave a spot's state as it was are not recorded.
+ *
+ * @author Wei Wu
+ */
+public class TraceRecorder implements MazeListener, AutoCloseable {
+    public static final int MAGIC = 0x4D5A5452;
+    public static final int CHECKPOINT_INTERVAL = 1024;
+    static final int CLEAR_EVENT = 0;
+    static final int STATE_BITS = 2;
+
+    private final Maze myMaze;
+    private final DataOutputStream myOut;
+    // events of the step being recorded
+    private byte[] myEvents;
+    private int myEventsLength;
+    private int myNumEvents;
+    // spot of the last event, and of the last event before the step being recorded
+    private long myPrevious;
+    private long myStepBase;
+    // bytes written so far
+    private long myOffset;
+    private long myNumSteps;
+    // where each checkpointed step starts, and the spot its first event is measured from
+    private long[] myCheckpoints;
+    private int myNumCheckpoints;
+    private boolean isClosed;
+
+
+    /**
+     * Create a recorder that writes every change made to the given maze, from now until
+     * it is closed, to the given output.
+     */
+    public TraceRecorder (Maze maze, OutputStream out) {
+        myMaze = maze;
+        myOut = new DataOutputStream(new BufferedOutputStream(out));
+        myEvents = new byte[64];
+        myCheckpoints = new long[64];
+        try {
+            myOut.writeInt(MAGIC);
+            myOut.writeInt(maze.getNumRows());
+            myOut.writeInt(maze.getNumColumns());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        myOffset = 3 * Integer.BYTES;
+        maze.addListener(this);
+    }
+
+    /**
+     * Run the search made by the given function on the given maze to completion, recording it
+     * to the given output, and return it. Whatever the search marks as it is made is the first step.
+     */
+    public static SearchAlgorithm record (Maze maze, Function<Maze, SearchAlgorithm> solver, OutputStream out) {
+        try (TraceRecorder recorder = new TraceRecorder(maze, out)) {
+            SearchAlgorithm search = solver.apply(maze);
+            recorder.endStep();
+            boolean isDone = false;
+            while (! isDone) {
+                isDone = search.step();
+                recorder.endStep();
+            }
+            return search;
+        }
+    }
+
+    /**
+     * @see MazeListener#stateChanged(int, int, int, int)
+     */
+    @Override
+    public void stateChanged (int x, int y, int oldState, int newState) {
+        if (oldState == newState) {
+            return;
+        }
+        long index = (long)x * myMaze.getNumColumns() + y;
+        long delta = index - myPrevious;
+        myPrevious = index;
+        long zigzag = (delta << 1) ^ (delta >> (Long.SIZE - 1));
+        addEvent((zigzag << (2 * STATE_BITS)) | ((long)oldState << STATE_BITS) | newState);
+    }
+
+    /**
+     * @see MazeListener#marksCleared()
+     */
+    @Override
+    public void marksCleared () {
+        addEvent(CLEAR_EVENT);
+    }
+
+    /**
+     * Finish the step being recorded; every change from here on belongs to the next step.
+     */
+    public void endStep () {
+        // simple error checking, we will see better ways in the future
+        assert(! isClosed);
+        try {
+            if (myNumSteps % CHECKPOINT_INTERVAL == 0) {
+                if (myNumCheckpoints * 2 == myCheckpoints.length) {
+                    myCheckpoints = Arrays.copyOf(myCheckpoints, myCheckpoints.length * 2);
+                }
+                myCheckpoints[myNumCheckpoints * 2] = myOffset;
+                myCheckpoints[myNumCheckpoints * 2 + 1] = myStepBase;
+                myNumCheckpoints += 1;
+            }
+            myOffset += writeVarLong(myOut, myNumEvents);
+            myOut.write(myEvents, 0, myEventsLength);
+            myOffset += myEventsLength;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        myNumSteps += 1;
+        myEventsLength = 0;
+        myNumEvents = 0;
+        myStepBase = myPrevious;
+    }
+
+    /**
+     * Returns number of steps recorded so far.
+     */
+    public long getNumSteps () {
+        return myNumSteps;
+    }
+
+    /**
+     * Returns number of bytes of trace written so far.
+     */
+    public long getNumBytes () {
+        return myOffset;
+    }
+
+    /**
+     * Stop recording, finishing any step still being recorded, and write the index of
+     * checkpointed steps; the output is closed too.
+     */
+    @Override
+    public void close () {
+        if (isClosed) {
+            return;
+        }
+        if (myNumEvents > 0) {
+            endStep();
+        }
+        isClosed = true;
+        myMaze.removeListener(this);
+        try {
+            long index = myOffset;
+            myOut.writeLong(myNumSteps);
+            myOut.writeInt(CHECKPOINT_INTERVAL);
+            myOut.writeInt(myNumCheckpoints);
+            for (int k = 0; k < myNumCheckpoints * 2; k += 1) {
+                myOut.writeLong(myCheckpoints[k]);
+            }
+            myOut.writeLong(index);
+            myOut.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addEvent (long event) {
+        if (myEventsLength + Long.BYTES + 2 > myEvents.length) {
+            myEvents = Arrays.copyOf(myEvents, myEvents.length * 2);
+        }
+        while ((event & ~0x7FL) != 0) {
+            myEvents[myEventsLength++] = (byte)((event & 0x7F) | 0x80);
+            event >>>= 7;
+        }
+        myEvents[myEventsLength++] = (byte)event;
+        myNumEvents += 1;
+    }
+
+    private static int writeVarLong (DataOutputStream out, long value) throws IOException {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+            length += 1;
+        }
+        out.writeByte((int)value);
+        return length;
+    }
+}
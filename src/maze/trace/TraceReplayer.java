@@ -0,0 +1,240 @@
+package maze.trace;
+
+import maze.model.Maze;
+import maze.model.Spot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * This class replays a trace written by a {@link TraceRecorder} onto a maze with the same
+ * walls, moving forward or backward any number of steps without running the search again.
+ *
+ * Moving forward applies each event's new state. Moving backward decodes each step from
+ * the nearest checkpoint before it and applies its events' old states in reverse, so
+ * scrubbing back one step costs at most one checkpoint interval of decoding. Marks
+ * cleared during the search cannot be undone that way, so going back past such a
+ * clear replays the trace from the start instead.
+ *
+ * A trace must fit in a single buffer (2GB), which holds hundreds of millions of steps.
+ *
+ * @author Wei Wu
+ */
+public class TraceReplayer {
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final Maze myMaze;
+    private final ByteBuffer myTrace;
+    private final long myNumSteps;
+    private final int myInterval;
+    private final long[] myCheckpoints;
+    // number of steps applied so far, where the next one starts and the spot its first event is measured from
+    private long myStep;
+    private int myOffset;
+    private long myBase;
+    // steps and events decoded while moving backward
+    private int[] myStepOffsets;
+    private long[] myStepBases;
+    private long[] myUndoIndices;
+    private int[] myUndoStates;
+
+
+    /**
+     * Create a replay of the given trace onto the given maze, whose marks are cleared so
+     * it is as it was before the first step.
+     */
+    public TraceReplayer (Maze maze, ByteBuffer trace) {
+        myMaze = maze;
+        myTrace = trace;
+        if (trace.getInt(0) != TraceRecorder.MAGIC) {
+            throw new IllegalArgumentException("not a maze trace");
+        }
+        // simple error checking, we will see better ways in the future
+        assert(trace.getInt(Integer.BYTES) == maze.getNumRows() && trace.getInt(2 * Integer.BYTES) == maze.getNumColumns());
+        int index = (int)trace.getLong(trace.limit() - Long.BYTES);
+        myNumSteps = trace.getLong(index);
+        myInterval = trace.getInt(index + Long.BYTES);
+        myCheckpoints = new long[trace.getInt(index + Long.BYTES + Integer.BYTES) * 2];
+        for (int k = 0; k < myCheckpoints.length; k += 1) {
+            myCheckpoints[k] = trace.getLong(index + Long.BYTES + 2 * Integer.BYTES + k * Long.BYTES);
+        }
+        myStepOffsets = new int[myInterval];
+        myStepBases = new long[myInterval];
+        myUndoIndices = new long[64];
+        myUndoStates = new int[64];
+        rewind();
+    }
+
+    /**
+     * Returns a replay of the trace in the given file onto the given maze.
+     */
+    public static TraceReplayer open (Maze maze, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TraceReplayer(maze, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns number of steps in the trace.
+     */
+    public long getNumSteps () {
+        return myNumSteps;
+    }
+
+    /**
+     * Returns number of steps applied to the maze so far.
+     */
+    public long getStep () {
+        return myStep;
+    }
+
+    /**
+     * Returns true only if every step in the trace has been applied.
+     */
+    public boolean isDone () {
+        return myStep == myNumSteps;
+    }
+
+    /**
+     * Apply the next step, returning true if the replay is done afterwards.
+     */
+    public boolean step () {
+        if (! isDone()) {
+            applyStep();
+        }
+        return isDone();
+    }
+
+    /**
+     * Move the given number of steps forward, or backward if it is negative.
+     */
+    public void advance (long numSteps) {
+        seek(myStep + numSteps);
+    }
+
+    /**
+     * Move to the given step (clamped to the trace), so that exactly that many steps are applied.
+     */
+    public void seek (long step) {
+        long target = Math.max(0, Math.min(step, myNumSteps));
+        if (target < myStep && target <= myStep - target) {
+            // starting over is no slower than undoing every step back to it
+            rewind();
+        }
+        while (myStep > target) {
+            if (! undoBlock(target)) {
+                // a clear cannot be undone, so replay from the start instead
+                rewind();
+            }
+        }
+        while (myStep < target) {
+            applyStep();
+        }
+    }
+
+    // Clear every mark and move back to before the first step
+    private void rewind () {
+        myMaze.resetMaze();
+        myStep = 0;
+        myOffset = HEADER_BYTES;
+        myBase = 0;
+    }
+
+    // Apply the step starting at the current offset
+    private void applyStep () {
+        long numEvents = readVarLong();
+        for (long k = 0; k < numEvents; k += 1) {
+            long event = readVarLong();
+            if (event == TraceRecorder.CLEAR_EVENT) {
+                myMaze.resetMaze();
+            }
+            else {
+                myBase += unzigzag(event >>> (2 * TraceRecorder.STATE_BITS));
+                apply(myBase, (int)(event & 3));
+            }
+        }
+        myStep += 1;
+    }
+
+    // Undo steps back to the given one or to the start of the checkpoint interval holding the last
+    // step applied, whichever is later; return false if that would mean undoing a clear
+    private boolean undoBlock (long target) {
+        int checkpoint = (int)((myStep - 1) / myInterval);
+        long first = (long)checkpoint * myInterval;
+        int numSteps = (int)(myStep - first);
+
+        // find where each step in the block starts
+        myOffset = (int)myCheckpoints[checkpoint * 2];
+        myBase = myCheckpoints[checkpoint * 2 + 1];
+        for (int s = 0; s < numSteps; s += 1) {
+            myStepOffsets[s] = myOffset;
+            myStepBases[s] = myBase;
+            long numEvents = readVarLong();
+            for (long k = 0; k < numEvents; k += 1) {
+                long event = readVarLong();
+                if (event != TraceRecorder.CLEAR_EVENT) {
+                    myBase += unzigzag(event >>> (2 * TraceRecorder.STATE_BITS));
+                }
+            }
+        }
+
+        // undo them, last step first and last event first
+        long stop = Math.max(first, target);
+        for (int s = numSteps - 1; first + s >= stop; s -= 1) {
+            myOffset = myStepOffsets[s];
+            myBase = myStepBases[s];
+            int numEvents = (int)readVarLong();
+            if (numEvents > myUndoIndices.length) {
+                myUndoIndices = Arrays.copyOf(myUndoIndices, numEvents);
+                myUndoStates = Arrays.copyOf(myUndoStates, numEvents);
+            }
+            for (int k = 0; k < numEvents; k += 1) {
+                long event = readVarLong();
+                if (event == TraceRecorder.CLEAR_EVENT) {
+                    return false;
+                }
+                myBase += unzigzag(event >>> (2 * TraceRecorder.STATE_BITS));
+                myUndoIndices[k] = myBase;
+                myUndoStates[k] = (int)(event >>> TraceRecorder.STATE_BITS) & 3;
+            }
+            for (int k = numEvents - 1; k >= 0; k -= 1) {
+                apply(myUndoIndices[k], myUndoStates[k]);
+            }
+            myStep = first + s;
+        }
+        myOffset = myStepOffsets[(int)(myStep - first)];
+        myBase = myStepBases[(int)(myStep - first)];
+        return true;
+    }
+
+    // Give the spot at the given row-major index the given state; walls are never marked
+    private void apply (long index, int state) {
+        if (state != Spot.WALL) {
+            myMaze.setMark((int)(index / myMaze.getNumColumns()), (int)(index % myMaze.getNumColumns()), state);
+        }
+    }
+
+    private long readVarLong () {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = myTrace.get(myOffset++);
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long unzigzag (long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,148 @@
+package maze.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * This class counts how long things take, in nanoseconds, so that percentiles can be
+ * reported without keeping every measurement.
+ *
+ * Values are counted in log-linear buckets: each power of two is split into SUB_BUCKETS
+ * equal parts, so any percentile is within about 3% of the true value, whatever the range.
+ * Any number of threads may record at once without locking.
+ *
+ * @author Wei Wu
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int NUM_BUCKETS = (Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray myCounts;
+    private final LongAdder myCount;
+    private final LongAdder myTotal;
+    private final LongAccumulator myMax;
+
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram () {
+        myCounts = new AtomicLongArray(NUM_BUCKETS);
+        myCount = new LongAdder();
+        myTotal = new LongAdder();
+        myMax = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Count one measurement of the given number of nanoseconds (negative values count as zero).
+     */
+    public void record (long nanos) {
+        long value = Math.max(0, nanos);
+        myCounts.incrementAndGet(bucketOf(value));
+        myCount.increment();
+        myTotal.add(value);
+        myMax.accumulate(value);
+    }
+
+    /**
+     * Add every measurement counted by the given histogram to this one.
+     */
+    public void add (LatencyHistogram other) {
+        for (int k = 0; k < NUM_BUCKETS; k += 1) {
+            long count = other.myCounts.get(k);
+            if (count != 0) {
+                myCounts.addAndGet(k, count);
+            }
+        }
+        myCount.add(other.myCount.sum());
+        myTotal.add(other.myTotal.sum());
+        myMax.accumulate(other.myMax.get());
+    }
+
+    /**
+     * Returns number of measurements counted.
+     */
+    public long getCount () {
+        return myCount.sum();
+    }
+
+    /**
+     * Returns mean of the measurements counted, or 0 if there are none.
+     */
+    public double getMean () {
+        long count = getCount();
+        return (count == 0) ? 0 : (double)myTotal.sum() / count;
+    }
+
+    /**
+     * Returns largest measurement counted.
+     */
+    public long getMax () {
+        return myMax.get();
+    }
+
+    /**
+     * Returns value below which the given fraction (between 0 and 1) of measurements fall,
+     * or 0 if there are none.
+     */
+    public long getPercentile (double fraction) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(fraction * count));
+        long seen = 0;
+        for (int k = 0; k < NUM_BUCKETS; k += 1) {
+            seen += myCounts.get(k);
+            if (seen >= rank) {
+                return Math.min(getMax(), middleOf(k));
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Forget every measurement.
+     */
+    public void clear () {
+        for (int k = 0; k < NUM_BUCKETS; k += 1) {
+            myCounts.set(k, 0);
+        }
+        myCount.reset();
+        myTotal.reset();
+        myMax.reset();
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return String.format("count %d  mean %.1f us  p50 %.1f us  p90 %.1f us  p99 %.1f us  p99.9 %.1f us  max %.1f us",
+                getCount(), getMean() / 1e3, getPercentile(0.5) / 1e3, getPercentile(0.9) / 1e3,
+                getPercentile(0.99) / 1e3, getPercentile(0.999) / 1e3, getMax() / 1e3);
+    }
+
+    static int bucketOf (long value) {
+        if (value < SUB_BUCKETS) {
+            return (int)value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int)(value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Value in the middle of the given bucket
+    static long middleOf (int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long low = (1L << exponent) + (bucket % SUB_BUCKETS) * width;
+        return low + width / 2;
+    }
+}
@@ -0,0 +1,96 @@
+package maze.util;
+
+import java.util.Arrays;
+
+
+/**
+ * This class provides an array of small unsigned values, each a fixed number of bits that
+ * divides 64, packed into long words and indexed by a long, so it can hold an entry for
+ * every spot of a maze too big to number with an int.
+ *
+ * Words are split into chunks of at most CHUNK_WORDS, since a single Java array cannot hold
+ * more than 2^31 entries; indices split into chunk, word and bit with shifts and masks.
+ *
+ * @author Wei Wu
+ */
+public class PackedArray {
+    // words in each chunk (a power of two, so indices split with shifts and masks)
+    public static final int CHUNK_BITS = 24;
+    public static final int CHUNK_WORDS = 1 << CHUNK_BITS;
+
+    private final long mySize;
+    private final int myBitsPerEntry;
+    // log2 of the number of entries in each word
+    private final int myEntryBits;
+    private final long myMask;
+    private final long[][] myChunks;
+
+
+    /**
+     * Create an array of the given number of entries of the given number of bits, every one 0.
+     */
+    public PackedArray (long size, int bitsPerEntry) {
+        // simple error checking, we will see better ways in the future
+        assert(size >= 0 && bitsPerEntry > 0 && Long.SIZE % bitsPerEntry == 0 && Integer.bitCount(bitsPerEntry) == 1);
+        mySize = size;
+        myBitsPerEntry = bitsPerEntry;
+        myEntryBits = Integer.numberOfTrailingZeros(Long.SIZE / bitsPerEntry);
+        myMask = (bitsPerEntry == Long.SIZE) ? -1 : (1L << bitsPerEntry) - 1;
+        long words = (size + (1L << myEntryBits) - 1) >>> myEntryBits;
+        myChunks = new long[(int)((words + CHUNK_WORDS - 1) >>> CHUNK_BITS)][];
+        for (int k = 0; k < myChunks.length; k += 1) {
+            myChunks[k] = new long[(int)Math.min(CHUNK_WORDS, words - ((long)k << CHUNK_BITS))];
+        }
+    }
+
+    /**
+     * Returns number of entries.
+     */
+    public long size () {
+        return mySize;
+    }
+
+    /**
+     * Returns entry at the given index.
+     */
+    public int get (long index) {
+        long word = index >>> myEntryBits;
+        return (int)((myChunks[(int)(word >>> CHUNK_BITS)][(int)(word & (CHUNK_WORDS - 1))] >>> shiftOf(index)) & myMask);
+    }
+
+    /**
+     * Set entry at the given index to the given value, of which only the entry's bits are kept.
+     */
+    public void set (long index, int value) {
+        long word = index >>> myEntryBits;
+        long[] chunk = myChunks[(int)(word >>> CHUNK_BITS)];
+        int offset = (int)(word & (CHUNK_WORDS - 1));
+        int shift = shiftOf(index);
+        chunk[offset] = (chunk[offset] & ~(myMask << shift)) | ((value & myMask) << shift);
+    }
+
+    /**
+     * Set every entry back to 0.
+     */
+    public void clear () {
+        for (long[] chunk : myChunks) {
+            Arrays.fill(chunk, 0);
+        }
+    }
+
+    /**
+     * Returns number of bytes held by the entries.
+     */
+    public long getNumBytes () {
+        long bytes = 0;
+        for (long[] chunk : myChunks) {
+            bytes += (long)chunk.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    // Returns where the given entry starts within its word
+    private int shiftOf (long index) {
+        return (int)(index & ((1L << myEntryBits) - 1)) * myBitsPerEntry;
+    }
+}
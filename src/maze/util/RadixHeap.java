@@ -0,0 +1,132 @@
+package maze.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+/**
+ * This class provides a monotone priority queue of long values (such as spots of a maze too
+ * big to number with an int, or an int spot together with more about it) keyed by
+ * non-negative int priorities.
+ *
+ * It is monotone because no key may be smaller than the last key removed, which always holds
+ * for Dijkstra's algorithm with non-negative costs. Each entry sits in the bucket numbered by
+ * the highest bit in which its key differs from the last key removed; when bucket 0 runs dry,
+ * the next non-empty bucket is emptied into lower ones. Every entry only ever moves down, so
+ * each costs O(log C) for the largest key difference C, with no comparisons between entries
+ * and no objects allocated per entry.
+ *
+ * @author Wei Wu
+ */
+public class RadixHeap {
+    private static final int NUM_BUCKETS = Integer.SIZE + 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int[][] myKeys;
+    private final long[][] myValues;
+    private final int[] mySizes;
+    private int mySize;
+    private int myLast;
+
+
+    /**
+     * Create an empty heap.
+     */
+    public RadixHeap () {
+        myKeys = new int[NUM_BUCKETS][INITIAL_CAPACITY];
+        myValues = new long[NUM_BUCKETS][INITIAL_CAPACITY];
+        mySizes = new int[NUM_BUCKETS];
+    }
+
+    /**
+     * Returns number of entries in the heap.
+     */
+    public int size () {
+        return mySize;
+    }
+
+    /**
+     * Returns true only if the heap has no entries.
+     */
+    public boolean isEmpty () {
+        return mySize == 0;
+    }
+
+    /**
+     * Add given value with given key, which must not be less than the last key removed.
+     */
+    public void push (int key, long value) {
+        // simple error checking, we will see better ways in the future
+        assert(key >= myLast);
+        add(bucketOf(key), key, value);
+        mySize += 1;
+    }
+
+    /**
+     * Returns key of the entry that will be removed next.
+     */
+    public int peekKey () {
+        refill();
+        return myKeys[0][mySizes[0] - 1];
+    }
+
+    /**
+     * Remove an entry with the smallest key and return its value.
+     */
+    public long pop () {
+        refill();
+        mySizes[0] -= 1;
+        mySize -= 1;
+        return myValues[0][mySizes[0]];
+    }
+
+    /**
+     * Remove every entry, keeping the space allocated for them.
+     */
+    public void clear () {
+        Arrays.fill(mySizes, 0);
+        mySize = 0;
+        myLast = 0;
+    }
+
+    // Make sure bucket 0 holds the entries with the smallest key, redistributing the next bucket if needed
+    private void refill () {
+        if (mySize == 0) {
+            throw new NoSuchElementException();
+        }
+        if (mySizes[0] > 0) {
+            return;
+        }
+        int b = 1;
+        while (mySizes[b] == 0) {
+            b += 1;
+        }
+        int[] keys = myKeys[b];
+        long[] values = myValues[b];
+        int count = mySizes[b];
+        int min = Integer.MAX_VALUE;
+        for (int k = 0; k < count; k += 1) {
+            min = Math.min(min, keys[k]);
+        }
+        myLast = min;
+        mySizes[b] = 0;
+        for (int k = 0; k < count; k += 1) {
+            add(bucketOf(keys[k]), keys[k], values[k]);
+        }
+    }
+
+    private void add (int bucket, int key, long value) {
+        int size = mySizes[bucket];
+        if (size == myKeys[bucket].length) {
+            myKeys[bucket] = Arrays.copyOf(myKeys[bucket], size * 2);
+            myValues[bucket] = Arrays.copyOf(myValues[bucket], size * 2);
+        }
+        myKeys[bucket][size] = key;
+        myValues[bucket][size] = value;
+        mySizes[bucket] = size + 1;
+    }
+
+    private int bucketOf (int key) {
+        return (key == myLast) ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(key ^ myLast);
+    }
+}
@@ -17,19 +17,48 @@ public class Randomness {
 	// create only one and reuse it, in order to get a truly random SEQUENCE of values
 	// make public so others can call typical random methods without having to create their own
 	public static final Random ourRandom = new Random();
+	// spacing between the seeds of successive streams, as in SplitMix64
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
 
 
 	/**
 	 * Returns random element from given List.
 	 */
 	public static Spot getRandomElement (List<Spot> spots) {
-		return spots.get(ourRandom.nextInt(spots.size()));
+		return getRandomElement(spots, ourRandom);
+	}
+
+	/**
+	 * Returns random element from given List, chosen using the given source of randomness.
+	 */
+	public static Spot getRandomElement (List<Spot> spots, Random random) {
+		return spots.get(random.nextInt(spots.size()));
 	}
 
 	/**
 	 * Returns true only if random value is below given threshold value.
 	 */
 	public static boolean isRandomEnough (double threshold) {
-		return ourRandom.nextDouble() < threshold;
+		return isRandomEnough(threshold, ourRandom);
+	}
+
+	/**
+	 * Returns true only if random value from the given source of randomness is below given threshold value.
+	 */
+	public static boolean isRandomEnough (double threshold, Random random) {
+		return random.nextDouble() < threshold;
+	}
+
+	/**
+	 * Returns source of randomness for the given stream of the given seed. Each stream's seed is
+	 * scrambled from its number, so streams of the same seed are independent of each other and
+	 * any one of them can be made again without making those before it, as when running many
+	 * trials in parallel that must still be repeatable.
+	 */
+	public static Random split (long seed, long stream) {
+		long z = seed + (stream + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new Random(z ^ (z >>> 31));
 	}
 }
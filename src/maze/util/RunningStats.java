@@ -0,0 +1,165 @@
+package maze.util;
+
+
+/**
+ * This class summarizes a stream of non-negative whole numbers (such as how many steps a
+ * random search takes to hit the goal) without keeping them: their count, mean, variance,
+ * smallest and largest, plus a log-linear histogram (like {@link LatencyHistogram}'s) from
+ * which percentiles are read to within about 3%.
+ *
+ * Summaries kept separately, say one per thread, can be added together at the end and give
+ * the same result as if every number had been recorded in one (the variance is merged as in
+ * Chan et al.'s parallel algorithm). A summary is not safe to record into from several
+ * threads at once; give each thread its own and add them up.
+ *
+ * @author Wei Wu
+ */
+public class RunningStats {
+    private final long[] myCounts;
+    private long myCount;
+    private double myMean;
+    // sum of squared differences from the mean
+    private double mySquares;
+    private long myMin;
+    private long myMax;
+
+
+    /**
+     * Create an empty summary.
+     */
+    public RunningStats () {
+        myCounts = new long[LatencyHistogram.NUM_BUCKETS];
+        myMin = Long.MAX_VALUE;
+    }
+
+    /**
+     * Count one value (negative values count as zero).
+     */
+    public void record (long value) {
+        value = Math.max(0, value);
+        myCounts[LatencyHistogram.bucketOf(value)] += 1;
+        myCount += 1;
+        double delta = value - myMean;
+        myMean += delta / myCount;
+        mySquares += delta * (value - myMean);
+        myMin = Math.min(myMin, value);
+        myMax = Math.max(myMax, value);
+    }
+
+    /**
+     * Add every value counted by the given summary to this one.
+     */
+    public void add (RunningStats other) {
+        if (other.myCount == 0) {
+            return;
+        }
+        for (int k = 0; k < myCounts.length; k += 1) {
+            myCounts[k] += other.myCounts[k];
+        }
+        long count = myCount + other.myCount;
+        double delta = other.myMean - myMean;
+        mySquares += other.mySquares + delta * delta * ((double)myCount * other.myCount / count);
+        myMean += delta * other.myCount / count;
+        myCount = count;
+        myMin = Math.min(myMin, other.myMin);
+        myMax = Math.max(myMax, other.myMax);
+    }
+
+    /**
+     * Returns number of values counted.
+     */
+    public long getCount () {
+        return myCount;
+    }
+
+    /**
+     * Returns mean of the values counted, or 0 if there are none.
+     */
+    public double getMean () {
+        return myMean;
+    }
+
+    /**
+     * Returns sample variance of the values counted, or 0 if there are fewer than two.
+     */
+    public double getVariance () {
+        return (myCount < 2) ? 0 : mySquares / (myCount - 1);
+    }
+
+    /**
+     * Returns sample standard deviation of the values counted.
+     */
+    public double getStandardDeviation () {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns standard error of the mean, which shrinks as more values are counted.
+     */
+    public double getStandardError () {
+        return (myCount == 0) ? 0 : getStandardDeviation() / Math.sqrt(myCount);
+    }
+
+    /**
+     * Returns smallest value counted, or 0 if there are none.
+     */
+    public long getMin () {
+        return (myCount == 0) ? 0 : myMin;
+    }
+
+    /**
+     * Returns largest value counted, or 0 if there are none.
+     */
+    public long getMax () {
+        return myMax;
+    }
+
+    /**
+     * Returns value below which the given fraction (between 0 and 1) of values fall, or 0 if there are none.
+     */
+    public long getPercentile (double fraction) {
+        if (myCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(fraction * myCount));
+        long seen = 0;
+        for (int k = 0; k < myCounts.length; k += 1) {
+            seen += myCounts[k];
+            if (seen >= rank) {
+                return Math.max(myMin, Math.min(myMax, LatencyHistogram.middleOf(k)));
+            }
+        }
+        return myMax;
+    }
+
+    /**
+     * Returns number of values in each of the given number of equal-width bins from the smallest
+     * value counted to the largest; values are placed by the middle of their histogram bucket.
+     */
+    public long[] getHistogram (int numBins) {
+        // simple error checking, we will see better ways in the future
+        assert(numBins > 0);
+        long[] bins = new long[numBins];
+        if (myCount == 0) {
+            return bins;
+        }
+        double width = Math.max(1, (double)(myMax - myMin + 1) / numBins);
+        for (int k = 0; k < myCounts.length; k += 1) {
+            if (myCounts[k] != 0) {
+                long value = Math.max(myMin, Math.min(myMax, LatencyHistogram.middleOf(k)));
+                bins[Math.min(numBins - 1, (int)((value - myMin) / width))] += myCounts[k];
+            }
+        }
+        return bins;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString () {
+        return String.format("count %d  mean %.1f (+/- %.1f)  sd %.1f  min %d  p50 %d  p90 %d  p99 %d  max %d",
+                myCount, getMean(), getStandardError(), getStandardDeviation(), getMin(),
+                getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax());
+    }
+}
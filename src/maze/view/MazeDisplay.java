@@ -4,6 +4,7 @@ import java.io.Reader;
 import java.sql.SQLOutput;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.beans.value.ChangeListener;
@@ -25,11 +26,20 @@ import javafx.scene.text.FontWeight;
 import javafx.util.Duration;
 import maze.model.Maze;
 import maze.solvers.BFS;
+import maze.solvers.BitFlood;
 import maze.solvers.DFS;
+import maze.solvers.DeadEndFill;
+import maze.solvers.Dijkstra;
 import maze.solvers.Greedy;
+import maze.solvers.IDAStar;
+import maze.solvers.JumpPointSearch;
 import maze.solvers.Magic;
 import maze.solvers.RandomWalk;
+import maze.solvers.SMAStar;
 import maze.solvers.SearchAlgorithm;
+import maze.solvers.Tremaux;
+import maze.solvers.WallFollower;
+import maze.trace.SearchTimeline;
 
 
 /**
@@ -76,7 +86,10 @@ public class MazeDisplay {
 	private boolean isPaused;
 	// Maze settings
 	private final Maze myMaze;
-	private SearchAlgorithm mySolver;
+	// current search, with snapshots to move back and forth through its steps
+	private SearchTimeline myTimeline;
+	private Slider myTimelineSlider;
+	private boolean isMovingSlider;
 
 	private double realDelay;
 
@@ -96,7 +109,7 @@ public class MazeDisplay {
 		VBox root = new VBox();
 		root.setSpacing(20);
 		root.setPadding(new Insets(10, 10, 10, 10));
-		root.getChildren().addAll(makeAlgorithmPanel(), makeMazeDisplay(), makeControlPanel(), makeSpeedSlider());
+		root.getChildren().addAll(makeAlgorithmPanel(), makeMazeDisplay(), makeControlPanel(), makeSpeedSlider(), makeTimelineSlider());
 
 		Scene scene = new Scene(root, background);
 		scene.setOnKeyPressed(e -> handleKeyInput(e.getCode()));
@@ -122,21 +135,46 @@ public class MazeDisplay {
 	private Node makeAlgorithmPanel () {
 
 		MenuItem  dfs = new MenuItem ("Depth-First Search");
-		dfs.setOnAction(value ->  setSearch(new DFS(myMaze)));
+		dfs.setOnAction(value ->  setSearch(DFS::new));
 
 		MenuItem  bfs = new MenuItem ("Breadth-First Search");
-		bfs.setOnAction(value ->  setSearch(new BFS(myMaze)));
+		bfs.setOnAction(value ->  setSearch(BFS::new));
 
 		MenuItem  greedy = new MenuItem ("Greedy Search");
-		greedy.setOnAction(value ->  setSearch(new Greedy(myMaze)));
+		greedy.setOnAction(value ->  setSearch(Greedy::new));
 
 		MenuItem  magic = new MenuItem ("Magic Search");
-		magic.setOnAction(value ->  setSearch(new Magic(myMaze)));
+		magic.setOnAction(value ->  setSearch(Magic::new));
 
 		MenuItem  random = new MenuItem("Random Search");
-		random.setOnAction(value ->  setSearch(new RandomWalk(myMaze)));
+		random.setOnAction(value ->  setSearch(RandomWalk::new));
 
-		MenuButton panel = new MenuButton("Solvers", null, dfs, bfs, greedy, magic, random);
+		MenuItem  deadEnds = new MenuItem("Dead-End Filling");
+		deadEnds.setOnAction(value ->  setSearch(DeadEndFill::new));
+
+		MenuItem  wallFollower = new MenuItem("Wall Follower");
+		wallFollower.setOnAction(value ->  setSearch(WallFollower::new));
+
+		MenuItem  tremaux = new MenuItem("Tremaux");
+		tremaux.setOnAction(value ->  setSearch(Tremaux::new));
+
+		MenuItem  bitFlood = new MenuItem("Bit-Parallel Flood");
+		bitFlood.setOnAction(value ->  setSearch(BitFlood::new));
+
+		MenuItem  dijkstra = new MenuItem("Dijkstra");
+		dijkstra.setOnAction(value ->  setSearch(Dijkstra::new));
+
+		MenuItem  jumpPoints = new MenuItem("Jump Point Search");
+		jumpPoints.setOnAction(value ->  setSearch(JumpPointSearch::new));
+
+		MenuItem  idaStar = new MenuItem("Iterative-Deepening A*");
+		idaStar.setOnAction(value ->  setSearch(IDAStar::new));
+
+		MenuItem  smaStar = new MenuItem("Memory-Bounded A*");
+		smaStar.setOnAction(value ->  setSearch(SMAStar::new));
+
+		MenuButton panel = new MenuButton("Solvers", null, dfs, bfs, greedy, magic, random, deadEnds,
+				wallFollower, tremaux, bitFlood, dijkstra, jumpPoints, idaStar, smaStar);
 
 		return panel;
 	}
@@ -175,6 +213,17 @@ public class MazeDisplay {
 		return panel;
 	}
 
+	// Organize slider to move back and forth through the steps the search has taken
+	private Node makeTimelineSlider () {
+		myTimelineSlider = new Slider(0, 0, 0);
+		myTimelineSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+			if (! isMovingSlider) {
+				seek(newValue.longValue());
+			}
+		});
+		return myTimelineSlider;
+	}
+
 	private void sliderSetup(Slider slider) {
 		slider.setMajorTickUnit(0.1);
 		slider.setMinorTickCount(2);
@@ -214,11 +263,11 @@ public class MazeDisplay {
 			case N -> newMaze();
 			case S -> step();
 			case P -> togglePause();
-			case D -> setSearch(new DFS(myMaze));
-			case B -> setSearch(new BFS(myMaze));
-			case G -> setSearch(new Greedy(myMaze));
-			case R -> setSearch(new RandomWalk(myMaze));
-			case M -> setSearch(new Magic(myMaze));
+			case D -> setSearch(DFS::new);
+			case B -> setSearch(BFS::new);
+			case G -> setSearch(Greedy::new);
+			case R -> setSearch(RandomWalk::new);
+			case M -> setSearch(Magic::new);
 		}
 	}
 
@@ -239,29 +288,51 @@ public class MazeDisplay {
 
 	// Take one step with current search algorithm
 	private void step () {
-		if (mySolver != null) {
+		if (myTimeline != null) {
 
 			updateStats();
 
-			if (mySolver.step()) {
+			if (myTimeline.step()) {
 				myAnimation.stop();
 				endDisplay();
 			}
+			updateTimelineSlider();
 			redraw();
 		}
 	}
 
+	// Pause the search and show it as it was at the given step
+	private void seek (long step) {
+		if (myTimeline != null) {
+			if (! isPaused) {
+				togglePause();
+			}
+			myTimeline.seek(step);
+			updateStats();
+			redraw();
+		}
+	}
+
+	// Move timeline slider to the current step without seeking
+	private void updateTimelineSlider () {
+		isMovingSlider = true;
+		myTimelineSlider.setMax((myTimeline == null) ? 0 : myTimeline.getFurthestStep());
+		myTimelineSlider.setValue((myTimeline == null) ? 0 : myTimeline.getStep());
+		isMovingSlider = false;
+	}
+
 	private void updateStats() {
-		String steps = "Steps: " + mySolver.getNumOfSteps() + "\n";
-		String sizes = "Data Structure Size: " + mySolver.getMaxSize() + "\n";
-		String backtracks = "Number of Backtracking " + mySolver.getNumOfDeadEnds();
+		SearchAlgorithm solver = myTimeline.getSolver();
+		String steps = "Steps: " + solver.getNumOfSteps() + "\n";
+		String sizes = "Data Structure Size: " + solver.getMaxSize() + "\n";
+		String backtracks = "Number of Backtracking " + solver.getNumOfDeadEnds();
 
 		String text = steps + sizes + backtracks;
 		myStats.setText(text);
 	}
 
 	private void endDisplay() {
-		if (mySolver.findTheGoal()) {
+		if (myTimeline.getSolver().findTheGoal()) {
 			myTitle.setText(YAY);
 			myTitle.setTextFill(Color.GREEN);
 		}
@@ -290,16 +361,18 @@ public class MazeDisplay {
 		myMaze.createMaze();
 		myTitle.setText(NO_SOLVER_TITLE);
 		myTitle.setTextFill(Color.BLACK);
-		mySolver = null;
+		myTimeline = null;
+		updateTimelineSlider();
 		redraw();
 	}
 
-	// Start given search algorithm for this maze
-	private void setSearch (SearchAlgorithm solver) {
-		mySolver = solver;
-		myTitle.setText(mySolver.toString());
-		myTitle.setTextFill(Color.BLACK);
+	// Start search algorithm made by given function for this maze
+	private void setSearch (Function<Maze, SearchAlgorithm> solver) {
 		myMaze.resetMaze();
+		myTimeline = new SearchTimeline(myMaze, solver);
+		myTitle.setText(myTimeline.getSolver().toString());
+		myTitle.setTextFill(Color.BLACK);
+		updateTimelineSlider();
 
 		myStats.setText(INIT_STATS);
 